@@ -1,6 +1,7 @@
 package com.metalSpring.config;
 
 import com.metalSpring.security.JwtFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -22,6 +23,11 @@ import java.util.List;
 @EnableWebSecurity
 public class SecurityConfig {
 
+    private static final List<String> CAMINHOS_SSE = List.of(
+            "/api/negociacoes/eventos",
+            "/api/admin/moderacao/estatisticas/stream"
+    );
+
     private final JwtFilter jwtFilter;
 
     public SecurityConfig(JwtFilter jwtFilter) {
@@ -44,6 +50,9 @@ public class SecurityConfig {
                         })
                 )
                 .authorizeHttpRequests(auth -> auth
+                        // Redespacho ASYNC das conexoes SSE ao concluir ou expirar; a requisicao original ja foi autenticada.
+                        .requestMatchers(request -> request.getDispatcherType() == DispatcherType.ASYNC
+                                && CAMINHOS_SSE.contains(request.getServletPath())).permitAll()
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/error", "/uploads/**").permitAll()
@@ -100,6 +109,7 @@ public class SecurityConfig {
         configuration.setAllowedOriginPatterns(List.of("*"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
         configuration.setAllowedHeaders(List.of("*"));
+        configuration.setExposedHeaders(List.of("Retry-After", "Idempotent-Replayed"));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -2,13 +2,18 @@ package com.metalSpring.controller;
 
 import com.metalSpring.model.dto.EnderecoDTO;
 import com.metalSpring.model.dto.RevendedorAdminDTO;
+import com.metalSpring.model.dto.TransicaoLoteDTO;
 import com.metalSpring.model.dto.UsuarioDTO;
 import com.metalSpring.model.embeddable.Endereco;
 import com.metalSpring.model.entity.Administrador;
 import com.metalSpring.model.entity.Revendedor;
 import com.metalSpring.model.entity.Usuario;
+import com.metalSpring.model.enums.PedidoStatus;
 import com.metalSpring.model.enums.UsuarioTipo;
 import com.metalSpring.services.AdministradorService;
+import com.metalSpring.services.MetricasService;
+import com.metalSpring.services.PedidoService;
+import com.metalSpring.services.TaxasService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
@@ -27,6 +32,15 @@ public class AdministradorController {
     @Autowired
     private AdministradorService administradorService;
 
+    @Autowired
+    private MetricasService metricasService;
+
+    @Autowired
+    private TaxasService taxasService;
+
+    @Autowired
+    private PedidoService pedidoService;
+
     @Value("${app.premium.dias:30}")
     private int diasPremiumPadrao;
 
@@ -45,6 +59,11 @@ public class AdministradorController {
         return ResponseEntity.ok(usuarios);
     }
 
+    @GetMapping("/metricas")
+    public ResponseEntity<Map<String, Number>> listarMetricas() {
+        return ResponseEntity.ok(metricasService.listar());
+    }
+
     @GetMapping("/revendedores")
     public ResponseEntity<List<RevendedorAdminDTO>> listarRevendedores() {
         List<RevendedorAdminDTO> revendedores = administradorService.listarRevendedores().stream()
@@ -100,7 +119,7 @@ public class AdministradorController {
         dto.setEmail(revendedor.getEmail());
         dto.setTipo(revendedor.getTipo());
         dto.setAtivo(revendedor.isAtivo());
-        dto.setSaldoTaxas(revendedor.getSaldoTaxas());
+        dto.setSaldoTaxas(taxasService.saldo(revendedor.getId()).doubleValue());
         dto.setPremiumAtivo(revendedor.getPremiumAtivo());
         dto.setPremiumAte(revendedor.getPremiumAte());
         dto.setDataCadastro(revendedor.getDataCadastro());
@@ -204,6 +223,18 @@ public class AdministradorController {
         }
     }
 
+    @PostMapping("/pedidos/status")
+    public ResponseEntity<?> atualizarStatusPedidos(
+            @RequestParam PedidoStatus status,
+            @RequestBody List<String> pedidoIds) {
+        try {
+            TransicaoLoteDTO resultado = pedidoService.atualizarStatusEmLote(pedidoIds, status);
+            return ResponseEntity.ok(resultado);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @PostMapping("/revendedores/{revendedorId}/premium")
     public ResponseEntity<Map<String, String>> ativarPremium(
             @PathVariable String revendedorId,
@@ -1,12 +1,24 @@
 package com.metalSpring.controller;
 
+import com.metalSpring.model.dto.AlertaModeracaoDTO;
+import com.metalSpring.model.dto.RegraModeracaoDTO;
 import com.metalSpring.model.enums.AlertaModeracaoStatus;
+import com.metalSpring.model.enums.NivelRiscoModeracao;
+import com.metalSpring.security.UsuarioDetails;
 import com.metalSpring.services.AdministradorService;
+import com.metalSpring.services.EstatisticasModeracaoService;
+import com.metalSpring.services.ModeracaoService;
 import com.metalSpring.services.NegociacaoService;
+import com.metalSpring.services.RevisaoModeracaoService;
+import java.util.List;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/admin/moderacao")
@@ -19,14 +31,83 @@ public class ModeracaoController {
     @Autowired
     private AdministradorService administradorService;
 
+    @Autowired
+    private ModeracaoService moderacaoService;
+
+    @Autowired
+    private RevisaoModeracaoService revisaoModeracaoService;
+
+    @Autowired
+    private EstatisticasModeracaoService estatisticasModeracaoService;
+
     @GetMapping("/alertas")
     public ResponseEntity<?> listarAlertas(
             @RequestParam(required = false) String usuarioId,
             @RequestParam(required = false) String data,
             @RequestParam(required = false) String tipo,
-            @RequestParam(required = false) AlertaModeracaoStatus status
+            @RequestParam(required = false) AlertaModeracaoStatus status,
+            @RequestParam(required = false) NivelRiscoModeracao risco
+    ) {
+        return ResponseEntity.ok(negociacaoService.listarAlertas(usuarioId, data, tipo, status, risco));
+    }
+
+    @GetMapping("/alertas/pagina")
+    public ResponseEntity<?> listarAlertasPaginado(
+            @RequestParam(required = false) String usuarioId,
+            @RequestParam(required = false) String data,
+            @RequestParam(required = false) String tipo,
+            @RequestParam(required = false) AlertaModeracaoStatus status,
+            @RequestParam(required = false) NivelRiscoModeracao risco,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite
+    ) {
+        try {
+            return ResponseEntity.ok(negociacaoService.listarAlertasPaginado(usuarioId, data, tipo, status, risco, cursor, limite));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/fila/reservar")
+    public ResponseEntity<List<AlertaModeracaoDTO>> reservarAlertas(
+            @AuthenticationPrincipal UsuarioDetails moderador,
+            @RequestParam(required = false) Integer limite
+    ) {
+        return ResponseEntity.ok(revisaoModeracaoService.reservar(moderador.getUsuario().getId(), limite));
+    }
+
+    @PostMapping("/fila/{alertaId}/renovar")
+    public ResponseEntity<?> renovarReserva(@AuthenticationPrincipal UsuarioDetails moderador, @PathVariable String alertaId) {
+        try {
+            revisaoModeracaoService.renovar(alertaId, moderador.getUsuario().getId());
+            return ResponseEntity.ok(Map.of("message", "Reserva renovada"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/fila/{alertaId}/liberar")
+    public ResponseEntity<?> liberarReserva(@AuthenticationPrincipal UsuarioDetails moderador, @PathVariable String alertaId) {
+        try {
+            revisaoModeracaoService.liberar(alertaId, moderador.getUsuario().getId());
+            return ResponseEntity.ok(Map.of("message", "Alerta devolvido a fila"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/fila/{alertaId}/concluir")
+    public ResponseEntity<?> concluirRevisao(
+            @AuthenticationPrincipal UsuarioDetails moderador,
+            @PathVariable String alertaId,
+            @RequestParam AlertaModeracaoStatus status
     ) {
-        return ResponseEntity.ok(negociacaoService.listarAlertas(usuarioId, data, tipo, status));
+        try {
+            revisaoModeracaoService.concluir(alertaId, moderador.getUsuario().getId(), status);
+            return ResponseEntity.ok(Map.of("message", "Revisao concluida"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     @GetMapping("/estatisticas")
@@ -34,13 +115,57 @@ public class ModeracaoController {
         return ResponseEntity.ok(negociacaoService.estatisticasAlertas());
     }
 
+    @GetMapping(value = "/estatisticas/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter transmitirEstatisticas() {
+        return estatisticasModeracaoService.assinar();
+    }
+
+    @GetMapping("/regras")
+    public ResponseEntity<List<RegraModeracaoDTO>> listarRegras() {
+        return ResponseEntity.ok(moderacaoService.listarRegras());
+    }
+
+    @PostMapping("/regras")
+    public ResponseEntity<?> criarRegra(@RequestBody RegraModeracaoDTO dto) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(moderacaoService.criarRegra(dto));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PutMapping("/regras/{regraId}")
+    public ResponseEntity<?> atualizarRegra(@PathVariable String regraId, @RequestBody RegraModeracaoDTO dto) {
+        try {
+            return ResponseEntity.ok(moderacaoService.atualizarRegra(regraId, dto));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/regras/{regraId}")
+    public ResponseEntity<?> removerRegra(@PathVariable String regraId) {
+        try {
+            moderacaoService.removerRegra(regraId);
+            return ResponseEntity.ok(Map.of("message", "Regra removida"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/regras/recarregar")
+    public ResponseEntity<List<RegraModeracaoDTO>> recarregarRegras() {
+        return ResponseEntity.ok(moderacaoService.recarregar());
+    }
+
     @PostMapping("/alertas/{alertaId}/status")
     public ResponseEntity<?> atualizarStatus(
+            @AuthenticationPrincipal UsuarioDetails moderador,
             @PathVariable String alertaId,
             @RequestParam AlertaModeracaoStatus status
     ) {
         try {
-            return ResponseEntity.ok(negociacaoService.atualizarAlerta(alertaId, status));
+            return ResponseEntity.ok(negociacaoService.atualizarAlerta(alertaId, moderador.getUsuario().getId(), status));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
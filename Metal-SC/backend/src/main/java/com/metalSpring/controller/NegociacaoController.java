@@ -1,19 +1,25 @@
 package com.metalSpring.controller;
 
-import com.metalSpring.model.dto.NegociacaoConversaDTO;
 import com.metalSpring.model.dto.NegociacaoCriarDTO;
 import com.metalSpring.model.dto.NegociacaoDenunciaDTO;
 import com.metalSpring.model.dto.NegociacaoEnviarMensagemDTO;
+import com.metalSpring.model.dto.NegociacaoResumoDTO;
 import com.metalSpring.model.dto.NotificacaoDTO;
 import com.metalSpring.model.enums.NegociacaoStatus;
 import com.metalSpring.model.enums.TipoMensagemNegociacao;
+import com.metalSpring.security.LimiteTaxa;
+import com.metalSpring.security.UsuarioDetails;
+import com.metalSpring.services.EventosNegociacaoService;
 import com.metalSpring.services.NegociacaoService;
 import java.util.List;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/negociacoes")
@@ -23,6 +29,9 @@ public class NegociacaoController {
     @Autowired
     private NegociacaoService negociacaoService;
 
+    @Autowired
+    private EventosNegociacaoService eventosNegociacaoService;
+
     @PostMapping
     public ResponseEntity<?> iniciar(@RequestBody NegociacaoCriarDTO dto) {
         try {
@@ -34,10 +43,19 @@ public class NegociacaoController {
         }
     }
 
+    @GetMapping(value = "/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter eventos(@AuthenticationPrincipal UsuarioDetails usuario) {
+        return eventosNegociacaoService.inscrever(usuario.getUsuario().getId());
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<?> obter(@PathVariable String id, @RequestParam(required = false) String visualizadorId) {
+    public ResponseEntity<?> obter(
+            @PathVariable String id,
+            @RequestParam(required = false) String visualizadorId,
+            @RequestParam(defaultValue = "true") boolean incluirMensagens
+    ) {
         try {
-            return ResponseEntity.ok(negociacaoService.obter(id, visualizadorId));
+            return ResponseEntity.ok(negociacaoService.obter(id, visualizadorId, incluirMensagens));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -54,16 +72,31 @@ public class NegociacaoController {
     }
 
     @GetMapping("/cliente/{clienteId}")
-    public ResponseEntity<List<NegociacaoConversaDTO>> listarPorCliente(@PathVariable String clienteId) {
+    public ResponseEntity<List<NegociacaoResumoDTO>> listarPorCliente(@PathVariable String clienteId) {
         return ResponseEntity.ok(negociacaoService.listarPorCliente(clienteId));
     }
 
     @GetMapping("/revendedor/{revendedorId}")
-    public ResponseEntity<List<NegociacaoConversaDTO>> listarPorRevendedor(@PathVariable String revendedorId) {
+    public ResponseEntity<List<NegociacaoResumoDTO>> listarPorRevendedor(@PathVariable String revendedorId) {
         return ResponseEntity.ok(negociacaoService.listarPorRevendedor(revendedorId));
     }
 
+    @GetMapping("/{id}/mensagens")
+    public ResponseEntity<?> listarMensagens(
+            @PathVariable String id,
+            @RequestParam(required = false) String antesDe,
+            @RequestParam(required = false) String depoisDe,
+            @RequestParam(required = false) Integer limite
+    ) {
+        try {
+            return ResponseEntity.ok(negociacaoService.listarMensagens(id, antesDe, depoisDe, limite));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @PostMapping("/{id}/mensagens")
+    @LimiteTaxa("mensagem")
     public ResponseEntity<?> enviarMensagem(@PathVariable String id, @RequestBody NegociacaoEnviarMensagemDTO dto) {
         try {
             return ResponseEntity.status(HttpStatus.CREATED).body(
@@ -75,6 +108,7 @@ public class NegociacaoController {
     }
 
     @PostMapping("/{id}/contraproposta")
+    @LimiteTaxa("contraproposta")
     public ResponseEntity<?> contraproposta(@PathVariable String id, @RequestBody NegociacaoEnviarMensagemDTO dto) {
         try {
             return ResponseEntity.status(HttpStatus.CREATED).body(
@@ -126,9 +160,16 @@ public class NegociacaoController {
     }
 
     @PostMapping("/{id}/lidas")
-    public ResponseEntity<Void> marcarComoLidas(@PathVariable String id, @RequestParam String usuarioId) {
-        negociacaoService.marcarComoLidas(id, usuarioId);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<?> marcarComoLidas(
+            @PathVariable String id,
+            @RequestParam String usuarioId,
+            @RequestParam(required = false) String ateMensagemId
+    ) {
+        try {
+            return ResponseEntity.ok(Map.of("atualizadas", negociacaoService.marcarComoLidas(id, usuarioId, ateMensagemId)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -31,6 +31,17 @@ public class PecaController {
         return ResponseEntity.ok(pecaService.listarTodas());
     }
 
+    @GetMapping("/resumo")
+    public ResponseEntity<?> listarResumo(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        try {
+            return ResponseEntity.ok(pecaService.listarResumo(cursor, limite));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Peca> buscarPorId(@PathVariable String id) {
         return pecaService.buscarPorId(id)
@@ -3,12 +3,14 @@ package com.metalSpring.controller;
 import com.metalSpring.model.dto.ItemPedidoDTO;
 import com.metalSpring.model.dto.PedidoDTO;
 import com.metalSpring.model.dto.EnderecoDTO;
+import com.metalSpring.model.dto.EventoPedidoDTO;
 import com.metalSpring.model.entity.Pedido;
 import com.metalSpring.model.entity.Peca;
 import com.metalSpring.model.entity.Revendedor;
 import com.metalSpring.model.entity.Usuario;
 import com.metalSpring.model.enums.PedidoStatus;
 import com.metalSpring.services.PedidoService;
+import com.metalSpring.services.EventosPedidoService;
 import com.metalSpring.services.NegociacaoService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -29,6 +31,9 @@ public class PedidoController {
     @Autowired
     private NegociacaoService negociacaoService;
 
+    @Autowired
+    private EventosPedidoService eventosPedidoService;
+
     private EnderecoDTO toEnderecoDTO(com.metalSpring.model.embeddable.Endereco endereco) {
         if (endereco == null) {
             return null;
@@ -58,7 +63,6 @@ public class PedidoController {
         dto.setDataAprovacaoRevendedor(pedido.getDataAprovacaoRevendedor());
         dto.setDataPagamentoInformadoCliente(pedido.getDataPagamentoInformadoCliente());
         dto.setDataPagamentoConfirmado(pedido.getDataPagamentoConfirmado());
-        dto.setHistoricoEventos(pedido.getHistoricoEventos());
         dto.setEnderecoEntrega(toEnderecoDTO(pedido.getEnderecoEntrega()));
         if (pedido.getConversaNegociacao() != null) {
             dto.setConversaId(pedido.getConversaNegociacao().getId());
@@ -110,10 +114,25 @@ public class PedidoController {
     @GetMapping("/{id}")
     public ResponseEntity<PedidoDTO> buscarPorId(@PathVariable String id) {
         return pedidoService.buscarPorId(id)
-                .map(pedido -> ResponseEntity.ok(toPedidoDTO(pedido)))
+                .map(pedido -> {
+                    PedidoDTO dto = toPedidoDTO(pedido);
+                    // Primeira pagina do historico no formato antigo; o restante vem de /eventos.
+                    dto.setHistoricoEventos(eventosPedidoService.listar(id, null, null).stream()
+                            .map(evento -> evento.getDataHora() + " - " + evento.getDescricao())
+                            .collect(Collectors.toList()));
+                    return ResponseEntity.ok(dto);
+                })
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/eventos")
+    public ResponseEntity<List<EventoPedidoDTO>> listarEventos(
+            @PathVariable String id,
+            @RequestParam(required = false) Long depoisDe,
+            @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(eventosPedidoService.listar(id, depoisDe, limite));
+    }
+
     @GetMapping("/cliente/{clienteId}")
     public ResponseEntity<List<PedidoDTO>> buscarPorCliente(@PathVariable String clienteId) {
         List<PedidoDTO> pedidos = pedidoService.buscarPorCliente(clienteId).stream()
@@ -0,0 +1,77 @@
+package com.metalSpring.controller;
+
+import com.metalSpring.model.dto.FacetasDTO;
+import com.metalSpring.model.entity.Peca;
+import com.metalSpring.model.enums.PecaEstado;
+import com.metalSpring.services.SearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/pecas/busca")
+@CrossOrigin(origins = "*")
+public class SearchController {
+
+    @Autowired
+    private SearchService searchService;
+
+    @GetMapping
+    public ResponseEntity<?> buscar(
+            @RequestParam(required = false) String nome,
+            @RequestParam(required = false) String marca,
+            @RequestParam(required = false) String categoria,
+            @RequestParam(required = false) String modeloVeiculo,
+            @RequestParam(required = false) Integer anoMin,
+            @RequestParam(required = false) Integer anoMax,
+            @RequestParam(required = false) Double precoMin,
+            @RequestParam(required = false) Double precoMax,
+            @RequestParam(required = false) PecaEstado estado,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        try {
+            return ResponseEntity.ok(searchService.buscarAvancadaPaginada(
+                    nome, marca, categoria, modeloVeiculo, anoMin, anoMax,
+                    precoMin, precoMax, estado, cursor, limite
+            ));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/marcas")
+    public ResponseEntity<List<String>> listarMarcas() {
+        return ResponseEntity.ok(searchService.listarMarcas());
+    }
+
+    @GetMapping("/categorias")
+    public ResponseEntity<List<String>> listarCategorias() {
+        return ResponseEntity.ok(searchService.listarCategorias());
+    }
+
+    @GetMapping("/anos")
+    public ResponseEntity<List<Integer>> listarAnos() {
+        return ResponseEntity.ok(searchService.listarAnos());
+    }
+
+    @GetMapping("/facetas")
+    public ResponseEntity<FacetasDTO> listarFacetas(
+            @RequestParam(required = false) String marca,
+            @RequestParam(required = false) String categoria,
+            @RequestParam(required = false) Integer ano,
+            @RequestParam(required = false) String estadoEndereco,
+            @RequestParam(required = false) String cidade,
+            @RequestParam(required = false) PecaEstado estadoPeca) {
+        return ResponseEntity.ok(searchService.listarFacetas(marca, categoria, ano, estadoEndereco, cidade, estadoPeca));
+    }
+
+    @GetMapping("/texto")
+    public ResponseEntity<List<Peca>> buscarTexto(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(searchService.buscarTexto(q, limite));
+    }
+}
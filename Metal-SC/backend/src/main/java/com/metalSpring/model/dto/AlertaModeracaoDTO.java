@@ -23,6 +23,11 @@ public class AlertaModeracaoDTO {
     private AlertaModeracaoStatus status;
     private long contadorInfracoesUsuario;
     private boolean denunciaManual;
+    private int ocorrencias;
+    private LocalDateTime ultimaOcorrencia;
+    private String reservadoPor;
+    private LocalDateTime reservadoAte;
+    private Long versao;
 
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
@@ -58,4 +63,14 @@ public class AlertaModeracaoDTO {
     public void setContadorInfracoesUsuario(long contadorInfracoesUsuario) { this.contadorInfracoesUsuario = contadorInfracoesUsuario; }
     public boolean isDenunciaManual() { return denunciaManual; }
     public void setDenunciaManual(boolean denunciaManual) { this.denunciaManual = denunciaManual; }
+    public int getOcorrencias() { return ocorrencias; }
+    public void setOcorrencias(int ocorrencias) { this.ocorrencias = ocorrencias; }
+    public LocalDateTime getUltimaOcorrencia() { return ultimaOcorrencia; }
+    public void setUltimaOcorrencia(LocalDateTime ultimaOcorrencia) { this.ultimaOcorrencia = ultimaOcorrencia; }
+    public String getReservadoPor() { return reservadoPor; }
+    public void setReservadoPor(String reservadoPor) { this.reservadoPor = reservadoPor; }
+    public LocalDateTime getReservadoAte() { return reservadoAte; }
+    public void setReservadoAte(LocalDateTime reservadoAte) { this.reservadoAte = reservadoAte; }
+    public Long getVersao() { return versao; }
+    public void setVersao(Long versao) { this.versao = versao; }
 }
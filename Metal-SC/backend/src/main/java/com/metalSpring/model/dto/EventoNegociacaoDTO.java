@@ -0,0 +1,28 @@
+package com.metalSpring.model.dto;
+
+import com.metalSpring.model.enums.NegociacaoStatus;
+
+public class EventoNegociacaoDTO {
+    private String tipo;
+    private String conversaId;
+    private NegociacaoStatus status;
+    private NegociacaoMensagemDTO mensagem;
+
+    public EventoNegociacaoDTO() {}
+
+    public EventoNegociacaoDTO(String tipo, String conversaId, NegociacaoStatus status, NegociacaoMensagemDTO mensagem) {
+        this.tipo = tipo;
+        this.conversaId = conversaId;
+        this.status = status;
+        this.mensagem = mensagem;
+    }
+
+    public String getTipo() { return tipo; }
+    public void setTipo(String tipo) { this.tipo = tipo; }
+    public String getConversaId() { return conversaId; }
+    public void setConversaId(String conversaId) { this.conversaId = conversaId; }
+    public NegociacaoStatus getStatus() { return status; }
+    public void setStatus(NegociacaoStatus status) { this.status = status; }
+    public NegociacaoMensagemDTO getMensagem() { return mensagem; }
+    public void setMensagem(NegociacaoMensagemDTO mensagem) { this.mensagem = mensagem; }
+}
@@ -0,0 +1,24 @@
+package com.metalSpring.model.dto;
+
+import com.metalSpring.model.enums.TipoEventoPedido;
+
+import java.time.LocalDateTime;
+
+public class EventoPedidoDTO {
+    private long seq;
+    private TipoEventoPedido tipo;
+    private String atorId;
+    private LocalDateTime dataHora;
+    private String descricao;
+
+    public long getSeq() { return seq; }
+    public void setSeq(long seq) { this.seq = seq; }
+    public TipoEventoPedido getTipo() { return tipo; }
+    public void setTipo(TipoEventoPedido tipo) { this.tipo = tipo; }
+    public String getAtorId() { return atorId; }
+    public void setAtorId(String atorId) { this.atorId = atorId; }
+    public LocalDateTime getDataHora() { return dataHora; }
+    public void setDataHora(LocalDateTime dataHora) { this.dataHora = dataHora; }
+    public String getDescricao() { return descricao; }
+    public void setDescricao(String descricao) { this.descricao = descricao; }
+}
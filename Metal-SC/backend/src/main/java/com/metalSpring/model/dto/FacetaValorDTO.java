@@ -0,0 +1,18 @@
+package com.metalSpring.model.dto;
+
+public class FacetaValorDTO {
+    private String valor;
+    private long quantidade;
+
+    public FacetaValorDTO() {}
+
+    public FacetaValorDTO(String valor, long quantidade) {
+        this.valor = valor;
+        this.quantidade = quantidade;
+    }
+
+    public String getValor() { return valor; }
+    public void setValor(String valor) { this.valor = valor; }
+    public long getQuantidade() { return quantidade; }
+    public void setQuantidade(long quantidade) { this.quantidade = quantidade; }
+}
@@ -0,0 +1,22 @@
+package com.metalSpring.model.dto;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class FacetasDTO {
+    private long total;
+    private Map<String, List<FacetaValorDTO>> facetas = new LinkedHashMap<>();
+
+    public FacetasDTO() {}
+
+    public FacetasDTO(long total, Map<String, List<FacetaValorDTO>> facetas) {
+        this.total = total;
+        this.facetas = facetas;
+    }
+
+    public long getTotal() { return total; }
+    public void setTotal(long total) { this.total = total; }
+    public Map<String, List<FacetaValorDTO>> getFacetas() { return facetas; }
+    public void setFacetas(Map<String, List<FacetaValorDTO>> facetas) { this.facetas = facetas; }
+}
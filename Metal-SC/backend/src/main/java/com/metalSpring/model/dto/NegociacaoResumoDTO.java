@@ -0,0 +1,100 @@
+package com.metalSpring.model.dto;
+
+import com.metalSpring.model.enums.NegociacaoStatus;
+import com.metalSpring.model.enums.TipoMensagemNegociacao;
+import java.time.LocalDateTime;
+
+public class NegociacaoResumoDTO {
+    private String id;
+    private String pedidoId;
+    private String pecaId;
+    private String pecaNome;
+    private String clienteId;
+    private String clienteNome;
+    private String revendedorId;
+    private String revendedorNome;
+    private Double valorOriginal;
+    private Double valorNegociado;
+    private Double valorFinalAcordado;
+    private Boolean aprovacaoCliente;
+    private Boolean aprovacaoRevendedor;
+    private NegociacaoStatus status;
+    private LocalDateTime criadaEm;
+    private LocalDateTime atualizadaEm;
+    private long naoLidas;
+    private String ultimaMensagemId;
+    private String ultimaMensagemRemetenteId;
+    private String ultimaMensagemTrecho;
+    private LocalDateTime ultimaMensagemData;
+    private TipoMensagemNegociacao ultimaMensagemTipo;
+
+    public NegociacaoResumoDTO() {}
+
+    public NegociacaoResumoDTO(String id, String pedidoId, String pecaId, String pecaNome,
+                               String clienteId, String clienteNome, String revendedorId, String revendedorNome,
+                               Double valorOriginal, Double valorNegociado, Double valorFinalAcordado,
+                               Boolean aprovacaoCliente, Boolean aprovacaoRevendedor, NegociacaoStatus status,
+                               LocalDateTime criadaEm, LocalDateTime atualizadaEm) {
+        this.id = id;
+        this.pedidoId = pedidoId;
+        this.pecaId = pecaId;
+        this.pecaNome = pecaNome;
+        this.clienteId = clienteId;
+        this.clienteNome = clienteNome;
+        this.revendedorId = revendedorId;
+        this.revendedorNome = revendedorNome;
+        this.valorOriginal = valorOriginal;
+        this.valorNegociado = valorNegociado;
+        this.valorFinalAcordado = valorFinalAcordado;
+        this.aprovacaoCliente = aprovacaoCliente;
+        this.aprovacaoRevendedor = aprovacaoRevendedor;
+        this.status = status;
+        this.criadaEm = criadaEm;
+        this.atualizadaEm = atualizadaEm;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getPedidoId() { return pedidoId; }
+    public void setPedidoId(String pedidoId) { this.pedidoId = pedidoId; }
+    public String getPecaId() { return pecaId; }
+    public void setPecaId(String pecaId) { this.pecaId = pecaId; }
+    public String getPecaNome() { return pecaNome; }
+    public void setPecaNome(String pecaNome) { this.pecaNome = pecaNome; }
+    public String getClienteId() { return clienteId; }
+    public void setClienteId(String clienteId) { this.clienteId = clienteId; }
+    public String getClienteNome() { return clienteNome; }
+    public void setClienteNome(String clienteNome) { this.clienteNome = clienteNome; }
+    public String getRevendedorId() { return revendedorId; }
+    public void setRevendedorId(String revendedorId) { this.revendedorId = revendedorId; }
+    public String getRevendedorNome() { return revendedorNome; }
+    public void setRevendedorNome(String revendedorNome) { this.revendedorNome = revendedorNome; }
+    public Double getValorOriginal() { return valorOriginal; }
+    public void setValorOriginal(Double valorOriginal) { this.valorOriginal = valorOriginal; }
+    public Double getValorNegociado() { return valorNegociado; }
+    public void setValorNegociado(Double valorNegociado) { this.valorNegociado = valorNegociado; }
+    public Double getValorFinalAcordado() { return valorFinalAcordado; }
+    public void setValorFinalAcordado(Double valorFinalAcordado) { this.valorFinalAcordado = valorFinalAcordado; }
+    public Boolean getAprovacaoCliente() { return aprovacaoCliente; }
+    public void setAprovacaoCliente(Boolean aprovacaoCliente) { this.aprovacaoCliente = aprovacaoCliente; }
+    public Boolean getAprovacaoRevendedor() { return aprovacaoRevendedor; }
+    public void setAprovacaoRevendedor(Boolean aprovacaoRevendedor) { this.aprovacaoRevendedor = aprovacaoRevendedor; }
+    public NegociacaoStatus getStatus() { return status; }
+    public void setStatus(NegociacaoStatus status) { this.status = status; }
+    public LocalDateTime getCriadaEm() { return criadaEm; }
+    public void setCriadaEm(LocalDateTime criadaEm) { this.criadaEm = criadaEm; }
+    public LocalDateTime getAtualizadaEm() { return atualizadaEm; }
+    public void setAtualizadaEm(LocalDateTime atualizadaEm) { this.atualizadaEm = atualizadaEm; }
+    public long getNaoLidas() { return naoLidas; }
+    public void setNaoLidas(long naoLidas) { this.naoLidas = naoLidas; }
+    public String getUltimaMensagemId() { return ultimaMensagemId; }
+    public void setUltimaMensagemId(String ultimaMensagemId) { this.ultimaMensagemId = ultimaMensagemId; }
+    public String getUltimaMensagemRemetenteId() { return ultimaMensagemRemetenteId; }
+    public void setUltimaMensagemRemetenteId(String ultimaMensagemRemetenteId) { this.ultimaMensagemRemetenteId = ultimaMensagemRemetenteId; }
+    public String getUltimaMensagemTrecho() { return ultimaMensagemTrecho; }
+    public void setUltimaMensagemTrecho(String ultimaMensagemTrecho) { this.ultimaMensagemTrecho = ultimaMensagemTrecho; }
+    public LocalDateTime getUltimaMensagemData() { return ultimaMensagemData; }
+    public void setUltimaMensagemData(LocalDateTime ultimaMensagemData) { this.ultimaMensagemData = ultimaMensagemData; }
+    public TipoMensagemNegociacao getUltimaMensagemTipo() { return ultimaMensagemTipo; }
+    public void setUltimaMensagemTipo(TipoMensagemNegociacao ultimaMensagemTipo) { this.ultimaMensagemTipo = ultimaMensagemTipo; }
+}
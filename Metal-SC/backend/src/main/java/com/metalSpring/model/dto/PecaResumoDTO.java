@@ -0,0 +1,38 @@
+package com.metalSpring.model.dto;
+
+public class PecaResumoDTO {
+    private String id;
+    private String nome;
+    private Double preco;
+    private String imagem;
+    private String cidade;
+    private String revendedorNome;
+    private boolean premium;
+
+    public PecaResumoDTO() {}
+
+    public PecaResumoDTO(String id, String nome, Double preco, String cidade,
+                         String revendedorNome, Boolean premium) {
+        this.id = id;
+        this.nome = nome;
+        this.preco = preco;
+        this.cidade = cidade;
+        this.revendedorNome = revendedorNome;
+        this.premium = Boolean.TRUE.equals(premium);
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getNome() { return nome; }
+    public void setNome(String nome) { this.nome = nome; }
+    public Double getPreco() { return preco; }
+    public void setPreco(Double preco) { this.preco = preco; }
+    public String getImagem() { return imagem; }
+    public void setImagem(String imagem) { this.imagem = imagem; }
+    public String getCidade() { return cidade; }
+    public void setCidade(String cidade) { this.cidade = cidade; }
+    public String getRevendedorNome() { return revendedorNome; }
+    public void setRevendedorNome(String revendedorNome) { this.revendedorNome = revendedorNome; }
+    public boolean isPremium() { return premium; }
+    public void setPremium(boolean premium) { this.premium = premium; }
+}
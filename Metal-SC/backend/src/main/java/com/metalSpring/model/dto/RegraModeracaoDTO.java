@@ -0,0 +1,40 @@
+package com.metalSpring.model.dto;
+
+import com.metalSpring.model.enums.NivelRiscoModeracao;
+
+public class RegraModeracaoDTO {
+    private String id;
+    private String termo;
+    private String tipo;
+    private NivelRiscoModeracao nivelRisco;
+    private boolean regex;
+    private Boolean ativo;
+    private Long versao;
+    private long ocorrencias;
+
+    public RegraModeracaoDTO() {}
+
+    public RegraModeracaoDTO(String termo, String tipo, NivelRiscoModeracao nivelRisco, boolean regex) {
+        this.termo = termo;
+        this.tipo = tipo;
+        this.nivelRisco = nivelRisco;
+        this.regex = regex;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getTermo() { return termo; }
+    public void setTermo(String termo) { this.termo = termo; }
+    public String getTipo() { return tipo; }
+    public void setTipo(String tipo) { this.tipo = tipo; }
+    public NivelRiscoModeracao getNivelRisco() { return nivelRisco; }
+    public void setNivelRisco(NivelRiscoModeracao nivelRisco) { this.nivelRisco = nivelRisco; }
+    public boolean isRegex() { return regex; }
+    public void setRegex(boolean regex) { this.regex = regex; }
+    public Boolean getAtivo() { return ativo; }
+    public void setAtivo(Boolean ativo) { this.ativo = ativo; }
+    public Long getVersao() { return versao; }
+    public void setVersao(Long versao) { this.versao = versao; }
+    public long getOcorrencias() { return ocorrencias; }
+    public void setOcorrencias(long ocorrencias) { this.ocorrencias = ocorrencias; }
+}
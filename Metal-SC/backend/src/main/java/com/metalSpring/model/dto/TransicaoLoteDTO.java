@@ -0,0 +1,27 @@
+package com.metalSpring.model.dto;
+
+import com.metalSpring.model.enums.PedidoStatus;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TransicaoLoteDTO {
+    private PedidoStatus status;
+    private List<String> aplicados = new ArrayList<>();
+    private Map<String, String> rejeitados = new LinkedHashMap<>();
+
+    public TransicaoLoteDTO() {}
+
+    public TransicaoLoteDTO(PedidoStatus status) {
+        this.status = status;
+    }
+
+    public PedidoStatus getStatus() { return status; }
+    public void setStatus(PedidoStatus status) { this.status = status; }
+    public List<String> getAplicados() { return aplicados; }
+    public void setAplicados(List<String> aplicados) { this.aplicados = aplicados; }
+    public Map<String, String> getRejeitados() { return rejeitados; }
+    public void setRejeitados(Map<String, String> rejeitados) { this.rejeitados = rejeitados; }
+}
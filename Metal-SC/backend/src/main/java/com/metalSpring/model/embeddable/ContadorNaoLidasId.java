@@ -0,0 +1,42 @@
+package com.metalSpring.model.embeddable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import java.util.Objects;
+
+@Embeddable
+public class ContadorNaoLidasId implements Serializable {
+
+    @Column(name = "usuario_id", nullable = false)
+    private String usuarioId;
+
+    @Column(name = "conversa_id", nullable = false)
+    private String conversaId;
+
+    public ContadorNaoLidasId() {}
+
+    public ContadorNaoLidasId(String usuarioId, String conversaId) {
+        this.usuarioId = usuarioId;
+        this.conversaId = conversaId;
+    }
+
+    public String getUsuarioId() { return usuarioId; }
+    public void setUsuarioId(String usuarioId) { this.usuarioId = usuarioId; }
+
+    public String getConversaId() { return conversaId; }
+    public void setConversaId(String conversaId) { this.conversaId = conversaId; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ContadorNaoLidasId that = (ContadorNaoLidasId) o;
+        return Objects.equals(usuarioId, that.usuarioId) && Objects.equals(conversaId, that.conversaId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(usuarioId, conversaId);
+    }
+}
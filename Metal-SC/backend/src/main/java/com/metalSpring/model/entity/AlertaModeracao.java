@@ -8,7 +8,13 @@ import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
-@Table(name = "alertas_moderacao")
+@Table(name = "alertas_moderacao", indexes = {
+        @Index(name = "idx_alertas_data", columnList = "data_hora, id"),
+        @Index(name = "idx_alertas_usuario_data", columnList = "usuario_id, data_hora"),
+        @Index(name = "idx_alertas_status_data", columnList = "status, data_hora"),
+        @Index(name = "idx_alertas_fila", columnList = "status, prioridade, data_hora"),
+        @Index(name = "idx_alertas_agrupamento", columnList = "usuario_id, chave_agrupamento, ultima_ocorrencia")
+})
 public class AlertaModeracao {
 
     @Id
@@ -67,11 +73,39 @@ public class AlertaModeracao {
     @Column(nullable = false)
     private AlertaModeracaoStatus status;
 
+    // Hash de (regra, trecho normalizado) das deteccoes automaticas; nulo nas denuncias.
+    @Column(length = 64)
+    private String chaveAgrupamento;
+
+    // Quantas vezes a infracao se repetiu; dataHora e a primeira e ultimaOcorrencia a mais recente.
+    private Integer ocorrencias;
+
+    private LocalDateTime ultimaOcorrencia;
+
+    // Ordinal de nivelRisco, para ordenar a fila de revisao pelo indice.
+    private Integer prioridade;
+
+    // Moderador que reservou o alerta para revisao e ate quando a reserva vale.
+    private String reservadoPor;
+
+    private LocalDateTime reservadoAte;
+
+    @Version
+    private Long versao;
+
     public AlertaModeracao() {
         this.dataHora = LocalDateTime.now();
+        this.ultimaOcorrencia = this.dataHora;
+        this.ocorrencias = 1;
         this.status = AlertaModeracaoStatus.PENDENTE;
     }
 
+    @PrePersist
+    @PreUpdate
+    void atualizarPrioridade() {
+        this.prioridade = nivelRisco != null ? nivelRisco.ordinal() : 0;
+    }
+
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
 
@@ -120,6 +154,27 @@ public class AlertaModeracao {
     public AlertaModeracaoStatus getStatus() { return status; }
     public void setStatus(AlertaModeracaoStatus status) { this.status = status; }
 
+    public String getChaveAgrupamento() { return chaveAgrupamento; }
+    public void setChaveAgrupamento(String chaveAgrupamento) { this.chaveAgrupamento = chaveAgrupamento; }
+
+    public Integer getOcorrencias() { return ocorrencias; }
+    public void setOcorrencias(Integer ocorrencias) { this.ocorrencias = ocorrencias; }
+
+    public LocalDateTime getUltimaOcorrencia() { return ultimaOcorrencia; }
+    public void setUltimaOcorrencia(LocalDateTime ultimaOcorrencia) { this.ultimaOcorrencia = ultimaOcorrencia; }
+
+    public Integer getPrioridade() { return prioridade; }
+    public void setPrioridade(Integer prioridade) { this.prioridade = prioridade; }
+
+    public String getReservadoPor() { return reservadoPor; }
+    public void setReservadoPor(String reservadoPor) { this.reservadoPor = reservadoPor; }
+
+    public LocalDateTime getReservadoAte() { return reservadoAte; }
+    public void setReservadoAte(LocalDateTime reservadoAte) { this.reservadoAte = reservadoAte; }
+
+    public Long getVersao() { return versao; }
+    public void setVersao(Long versao) { this.versao = versao; }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
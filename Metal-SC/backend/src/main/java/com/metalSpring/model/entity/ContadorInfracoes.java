@@ -0,0 +1,28 @@
+package com.metalSpring.model.entity;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "contadores_infracoes")
+public class ContadorInfracoes {
+
+    @Id
+    @Column(name = "usuario_id")
+    private String usuarioId;
+
+    @Column(nullable = false)
+    private long quantidade;
+
+    public ContadorInfracoes() {}
+
+    public ContadorInfracoes(String usuarioId, long quantidade) {
+        this.usuarioId = usuarioId;
+        this.quantidade = quantidade;
+    }
+
+    public String getUsuarioId() { return usuarioId; }
+    public void setUsuarioId(String usuarioId) { this.usuarioId = usuarioId; }
+
+    public long getQuantidade() { return quantidade; }
+    public void setQuantidade(long quantidade) { this.quantidade = quantidade; }
+}
@@ -0,0 +1,30 @@
+package com.metalSpring.model.entity;
+
+import com.metalSpring.model.embeddable.ContadorNaoLidasId;
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "contadores_nao_lidas", indexes = {
+        @Index(name = "idx_contadores_conversa", columnList = "conversa_id")
+})
+public class ContadorNaoLidas {
+
+    @EmbeddedId
+    private ContadorNaoLidasId id;
+
+    @Column(nullable = false)
+    private long quantidade;
+
+    public ContadorNaoLidas() {}
+
+    public ContadorNaoLidas(String usuarioId, String conversaId, long quantidade) {
+        this.id = new ContadorNaoLidasId(usuarioId, conversaId);
+        this.quantidade = quantidade;
+    }
+
+    public ContadorNaoLidasId getId() { return id; }
+    public void setId(ContadorNaoLidasId id) { this.id = id; }
+
+    public long getQuantidade() { return quantidade; }
+    public void setQuantidade(long quantidade) { this.quantidade = quantidade; }
+}
@@ -0,0 +1,68 @@
+package com.metalSpring.model.entity;
+
+import com.metalSpring.model.enums.TipoEventoPedido;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento do historico de um pedido. Eventos so sao inseridos, numerados em
+ * sequencia por pedido; salvar o pedido nao toca nesta tabela.
+ */
+@Entity
+@Immutable
+@Table(name = "eventos_pedido", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_eventos_pedido_seq", columnNames = {"pedido_id", "seq"})
+})
+public class EventoPedido {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "pedido_id", nullable = false)
+    private String pedidoId;
+
+    @Column(nullable = false)
+    private long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private TipoEventoPedido tipo;
+
+    @Column(name = "ator_id")
+    private String atorId;
+
+    @Column(name = "data_hora", nullable = false)
+    private LocalDateTime dataHora;
+
+    @Column(length = 1000)
+    private String descricao;
+
+    public EventoPedido() {}
+
+    public EventoPedido(String pedidoId, long seq, TipoEventoPedido tipo, String atorId,
+                        LocalDateTime dataHora, String descricao) {
+        this.pedidoId = pedidoId;
+        this.seq = seq;
+        this.tipo = tipo;
+        this.atorId = atorId;
+        this.dataHora = dataHora;
+        this.descricao = descricao;
+    }
+
+    public String getId() { return id; }
+
+    public String getPedidoId() { return pedidoId; }
+
+    public long getSeq() { return seq; }
+
+    public TipoEventoPedido getTipo() { return tipo; }
+
+    public String getAtorId() { return atorId; }
+
+    public LocalDateTime getDataHora() { return dataHora; }
+
+    public String getDescricao() { return descricao; }
+}
@@ -0,0 +1,65 @@
+package com.metalSpring.model.entity;
+
+import com.metalSpring.model.enums.TipoLancamentoTaxa;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Lancamento do extrato de taxas do revendedor. Os lancamentos nunca sao
+ * alterados: taxas entram com valor positivo e baixas com valor negativo, e
+ * cada pedido gera no maximo uma taxa.
+ */
+@Entity
+@Immutable
+@Table(name = "lancamentos_taxas", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_lancamentos_taxas_pedido", columnNames = {"pedido_id", "tipo"})
+}, indexes = {
+        @Index(name = "idx_lancamentos_taxas_revendedor", columnList = "revendedor_id, data_hora")
+})
+public class LancamentoTaxa {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "revendedor_id", nullable = false)
+    private String revendedorId;
+
+    @Column(name = "pedido_id")
+    private String pedidoId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TipoLancamentoTaxa tipo;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal valor;
+
+    @Column(name = "data_hora", nullable = false)
+    private LocalDateTime dataHora;
+
+    public LancamentoTaxa() {}
+
+    public LancamentoTaxa(String revendedorId, String pedidoId, TipoLancamentoTaxa tipo, BigDecimal valor) {
+        this.revendedorId = revendedorId;
+        this.pedidoId = pedidoId;
+        this.tipo = tipo;
+        this.valor = valor;
+        this.dataHora = LocalDateTime.now();
+    }
+
+    public String getId() { return id; }
+
+    public String getRevendedorId() { return revendedorId; }
+
+    public String getPedidoId() { return pedidoId; }
+
+    public TipoLancamentoTaxa getTipo() { return tipo; }
+
+    public BigDecimal getValor() { return valor; }
+
+    public LocalDateTime getDataHora() { return dataHora; }
+}
@@ -9,7 +9,9 @@ import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
-@Table(name = "mensagens_negociacao")
+@Table(name = "mensagens_negociacao", indexes = {
+        @Index(name = "idx_mensagens_conversa_data", columnList = "conversa_id, data_envio")
+})
 public class MensagemNegociacao {
 
     @Id
@@ -1,6 +1,7 @@
 package com.metalSpring.model.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.metalSpring.model.embeddable.Endereco;
@@ -11,7 +12,12 @@ import java.util.List;
 import java.util.Objects;
 
 @Entity
-@Table(name = "pecas")
+@Table(name = "pecas", indexes = {
+        @Index(name = "idx_pecas_marca", columnList = "marca"),
+        @Index(name = "idx_pecas_categoria", columnList = "categoria"),
+        @Index(name = "idx_pecas_ano", columnList = "ano"),
+        @Index(name = "idx_pecas_catalogo", columnList = "disponivel, vendedor_premium, id")
+})
 public class Peca {
 
     @Id
@@ -65,7 +71,13 @@ public class Peca {
     @JsonBackReference("revendedor-pecas")
     private Revendedor vendedor;
 
-    @Column(nullable = false)
+    // Copia de vendedor.premiumAtivo para ordenar o catalogo pelo indice sem o join;
+    // preenchida na criacao e depois so alterada pelos UPDATEs em lote do PecaRepository.
+    @Column(name = "vendedor_premium", nullable = false, updatable = false)
+    private boolean vendedorPremium;
+
+    // Fora dos UPDATEs da entidade: o estoque so muda pelos comandos do EstoqueService.
+    @Column(nullable = false, updatable = false)
     private Integer estoque;
 
     
@@ -103,6 +115,11 @@ public class Peca {
         }
     }
 
+    @PrePersist
+    void copiarPremiumDoVendedor() {
+        this.vendedorPremium = vendedor != null && Boolean.TRUE.equals(vendedor.getPremiumAtivo());
+    }
+
     public void removerImagem(String url) {
         imagens.remove(url);
     }
@@ -216,6 +233,11 @@ public class Peca {
         this.vendedor = vendedor;
     }
 
+    @JsonIgnore
+    public boolean isVendedorPremium() {
+        return vendedorPremium;
+    }
+
     @JsonProperty("revendedorId")
     public String getRevendedorId() {
         return vendedor != null ? vendedor.getId() : null;
@@ -72,17 +72,16 @@ public class Pedido {
     @Embedded
     private Endereco enderecoEntrega;
 
+    // Ultima sequencia usada em eventos_pedido; so muda pelo UPDATE de EventoPedidoRepository.
+    @Column(name = "ultimo_seq_evento", nullable = false, updatable = false)
+    private long ultimoSeqEvento;
+
     @OneToOne(mappedBy = "pedido", cascade = CascadeType.ALL)
     private Transacao transacao;
 
     @OneToOne(mappedBy = "pedido")
     private ConversaNegociacao conversaNegociacao;
 
-    @ElementCollection
-    @CollectionTable(name = "pedido_eventos", joinColumns = @JoinColumn(name = "pedido_id"))
-    @Column(name = "evento", length = 1000)
-    private List<String> historicoEventos = new ArrayList<>();
-
     public Pedido() {
         this.dataCriacao = LocalDateTime.now();
         this.status = PedidoStatus.AGUARDANDO_NEGOCIACAO;
@@ -116,23 +115,20 @@ public class Pedido {
     }
 
     public void atualizarStatus(PedidoStatus novoStatus) {
-        if (this.status == PedidoStatus.CANCELADO) {
-            throw new IllegalStateException("Pedido cancelado não pode ter status alterado");
+        if (!this.status.permite(novoStatus)) {
+            throw new IllegalStateException("Pedido em " + this.status + " não pode passar para " + novoStatus);
         }
         this.status = novoStatus;
     }
 
     public void confirmarPagamento() {
-        if (this.status != PedidoStatus.PAGAMENTO_INFORMADO_CLIENTE) {
-            throw new IllegalStateException("Pagamento so pode ser confirmado depois do cliente informar pagamento");
-        }
-        this.status = PedidoStatus.EM_SEPARACAO;
+        atualizarStatus(PedidoStatus.EM_SEPARACAO);
         this.statusPagamento = PagamentoStatus.PAGAMENTO_CONFIRMADO;
     }
 
     public void cancelarPedido() {
-        if (this.status == PedidoStatus.ENTREGUE) {
-            throw new IllegalStateException("Pedidos entregues não podem ser cancelados");
+        if (!this.status.permite(PedidoStatus.CANCELADO)) {
+            throw new IllegalStateException("Pedido em " + this.status + " não pode ser cancelado");
         }
         this.status = PedidoStatus.CANCELADO;
     }
@@ -204,16 +200,6 @@ public class Pedido {
     public ConversaNegociacao getConversaNegociacao() { return conversaNegociacao; }
     public void setConversaNegociacao(ConversaNegociacao conversaNegociacao) { this.conversaNegociacao = conversaNegociacao; }
 
-    public List<String> getHistoricoEventos() { return historicoEventos; }
-    public void setHistoricoEventos(List<String> historicoEventos) { this.historicoEventos = historicoEventos; }
-
-    public void registrarEvento(String evento) {
-        if (this.historicoEventos == null) {
-            this.historicoEventos = new ArrayList<>();
-        }
-        this.historicoEventos.add(LocalDateTime.now() + " - " + evento);
-    }
-
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,78 @@
+package com.metalSpring.model.entity;
+
+import com.metalSpring.model.enums.NivelRiscoModeracao;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "regras_moderacao", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_regras_moderacao_termo", columnNames = {"termo", "expressao_regular"})
+})
+public class RegraModeracao {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(nullable = false, length = 500)
+    private String termo;
+
+    // Quando verdadeiro, termo e uma expressao regular aplicada ao texto original.
+    @Column(name = "expressao_regular", nullable = false)
+    private boolean expressaoRegular;
+
+    @Column(nullable = false)
+    private String tipo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private NivelRiscoModeracao nivelRisco;
+
+    @Column(nullable = false)
+    private boolean ativo = true;
+
+    @Version
+    private Long versao;
+
+    @Column(nullable = false)
+    private LocalDateTime dataAtualizacao;
+
+    public RegraModeracao() {}
+
+    public RegraModeracao(String termo, boolean expressaoRegular, String tipo, NivelRiscoModeracao nivelRisco) {
+        this.termo = termo;
+        this.expressaoRegular = expressaoRegular;
+        this.tipo = tipo;
+        this.nivelRisco = nivelRisco;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void atualizarData() {
+        this.dataAtualizacao = LocalDateTime.now();
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getTermo() { return termo; }
+    public void setTermo(String termo) { this.termo = termo; }
+
+    public boolean isExpressaoRegular() { return expressaoRegular; }
+    public void setExpressaoRegular(boolean expressaoRegular) { this.expressaoRegular = expressaoRegular; }
+
+    public String getTipo() { return tipo; }
+    public void setTipo(String tipo) { this.tipo = tipo; }
+
+    public NivelRiscoModeracao getNivelRisco() { return nivelRisco; }
+    public void setNivelRisco(NivelRiscoModeracao nivelRisco) { this.nivelRisco = nivelRisco; }
+
+    public boolean isAtivo() { return ativo; }
+    public void setAtivo(boolean ativo) { this.ativo = ativo; }
+
+    public Long getVersao() { return versao; }
+    public void setVersao(Long versao) { this.versao = versao; }
+
+    public LocalDateTime getDataAtualizacao() { return dataAtualizacao; }
+    public void setDataAtualizacao(LocalDateTime dataAtualizacao) { this.dataAtualizacao = dataAtualizacao; }
+}
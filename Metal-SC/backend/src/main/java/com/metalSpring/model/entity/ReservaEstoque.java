@@ -0,0 +1,72 @@
+package com.metalSpring.model.entity;
+
+import com.metalSpring.model.enums.ReservaEstoqueStatus;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Unidades de uma peca separadas para um pedido em negociacao. O estoque da
+ * peca ja foi baixado quando a reserva foi criada; liberar ou expirar a
+ * reserva devolve as unidades, e confirmar o pagamento apenas a encerra.
+ */
+@Entity
+@Table(name = "reservas_estoque", indexes = {
+        @Index(name = "idx_reservas_estoque_pedido", columnList = "pedido_id, status"),
+        @Index(name = "idx_reservas_estoque_expiracao", columnList = "status, expira_em")
+})
+public class ReservaEstoque {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "pedido_id", nullable = false)
+    private String pedidoId;
+
+    @Column(name = "peca_id", nullable = false)
+    private String pecaId;
+
+    @Column(nullable = false)
+    private int quantidade;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReservaEstoqueStatus status = ReservaEstoqueStatus.ATIVA;
+
+    @Column(nullable = false)
+    private LocalDateTime criadaEm;
+
+    @Column(name = "expira_em", nullable = false)
+    private LocalDateTime expiraEm;
+
+    public ReservaEstoque() {}
+
+    public ReservaEstoque(String pedidoId, String pecaId, int quantidade, LocalDateTime expiraEm) {
+        this.pedidoId = pedidoId;
+        this.pecaId = pecaId;
+        this.quantidade = quantidade;
+        this.criadaEm = LocalDateTime.now();
+        this.expiraEm = expiraEm;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getPedidoId() { return pedidoId; }
+    public void setPedidoId(String pedidoId) { this.pedidoId = pedidoId; }
+
+    public String getPecaId() { return pecaId; }
+    public void setPecaId(String pecaId) { this.pecaId = pecaId; }
+
+    public int getQuantidade() { return quantidade; }
+    public void setQuantidade(int quantidade) { this.quantidade = quantidade; }
+
+    public ReservaEstoqueStatus getStatus() { return status; }
+    public void setStatus(ReservaEstoqueStatus status) { this.status = status; }
+
+    public LocalDateTime getCriadaEm() { return criadaEm; }
+    public void setCriadaEm(LocalDateTime criadaEm) { this.criadaEm = criadaEm; }
+
+    public LocalDateTime getExpiraEm() { return expiraEm; }
+    public void setExpiraEm(LocalDateTime expiraEm) { this.expiraEm = expiraEm; }
+}
@@ -1,5 +1,6 @@
 package com.metalSpring.model.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.metalSpring.model.enums.UsuarioTipo;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
@@ -19,6 +20,8 @@ public class Revendedor extends Usuario {
 
     private Double avaliacaoMedia;
 
+    // Saldo anterior ao extrato de taxas; o saldo vigente fica em saldos_taxas (TaxasService).
+    @JsonIgnore
     @Column(nullable = false)
     private Double saldoTaxas = 0.0;
 
@@ -0,0 +1,29 @@
+package com.metalSpring.model.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Soma dos lancamentos de taxas do revendedor, atualizada por incremento no
+ * banco na mesma transacao de cada lancamento.
+ */
+@Entity
+@Table(name = "saldos_taxas")
+public class SaldoTaxas {
+
+    @Id
+    @Column(name = "revendedor_id")
+    private String revendedorId;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal saldo;
+
+    public SaldoTaxas() {}
+
+    public String getRevendedorId() { return revendedorId; }
+    public void setRevendedorId(String revendedorId) { this.revendedorId = revendedorId; }
+
+    public BigDecimal getSaldo() { return saldo; }
+    public void setSaldo(BigDecimal saldo) { this.saldo = saldo; }
+}
@@ -1,17 +1,86 @@
 package com.metalSpring.model.enums;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Status do pedido e a tabela de transicoes permitidas entre eles.
+ *
+ * As etapas ate o pagamento informado sao conduzidas pela negociacao e pelas
+ * operacoes de pagamento; depois da confirmacao o pedido avanca pelas etapas
+ * de entrega. CANCELADO e terminal e ENTREGUE so pode ser concluido.
+ */
 public enum PedidoStatus {
-    PENDENTE,
-    AGUARDANDO_NEGOCIACAO,
-    PAGAMENTO_LIBERADO,
-    PAGAMENTO_PENDENTE,
-    PAGAMENTO_INFORMADO_CLIENTE,
-    PAGAMENTO_CONFIRMADO,
-    EM_PREPARACAO,
-    CONCLUIDO,
-    CONFIRMADO,
-    EM_SEPARACAO,
-    ENVIADO,
-    ENTREGUE,
-    CANCELADO
+    PENDENTE(false),
+    AGUARDANDO_NEGOCIACAO(false),
+    PAGAMENTO_LIBERADO(false),
+    PAGAMENTO_PENDENTE(false),
+    PAGAMENTO_INFORMADO_CLIENTE(false),
+    PAGAMENTO_CONFIRMADO(true),
+    EM_PREPARACAO(true),
+    CONCLUIDO(true),
+    CONFIRMADO(true),
+    EM_SEPARACAO(true),
+    ENVIADO(true),
+    ENTREGUE(true),
+    CANCELADO(false);
+
+    private static final Map<PedidoStatus, Set<PedidoStatus>> DESTINOS = new EnumMap<>(PedidoStatus.class);
+    private static final Map<PedidoStatus, Set<PedidoStatus>> ORIGENS = new EnumMap<>(PedidoStatus.class);
+
+    static {
+        permitir(PENDENTE, AGUARDANDO_NEGOCIACAO, PAGAMENTO_LIBERADO, CANCELADO);
+        // Uma nova proposta volta o pedido para negociacao, inclusive se ja estava nela.
+        permitir(AGUARDANDO_NEGOCIACAO, AGUARDANDO_NEGOCIACAO, PAGAMENTO_LIBERADO, CANCELADO);
+        permitir(PAGAMENTO_LIBERADO, AGUARDANDO_NEGOCIACAO, PAGAMENTO_LIBERADO, PAGAMENTO_INFORMADO_CLIENTE, CANCELADO);
+        permitir(PAGAMENTO_PENDENTE, AGUARDANDO_NEGOCIACAO, PAGAMENTO_LIBERADO, PAGAMENTO_INFORMADO_CLIENTE, CANCELADO);
+        permitir(PAGAMENTO_INFORMADO_CLIENTE, EM_SEPARACAO, CANCELADO);
+        permitir(PAGAMENTO_CONFIRMADO, EM_SEPARACAO, EM_PREPARACAO, ENVIADO, CONCLUIDO, CANCELADO);
+        permitir(CONFIRMADO, EM_SEPARACAO, EM_PREPARACAO, ENVIADO, CONCLUIDO, CANCELADO);
+        permitir(EM_SEPARACAO, EM_PREPARACAO, ENVIADO, CONCLUIDO, CANCELADO);
+        permitir(EM_PREPARACAO, ENVIADO, CONCLUIDO, CANCELADO);
+        permitir(ENVIADO, ENTREGUE, CANCELADO);
+        permitir(ENTREGUE, CONCLUIDO);
+        // Pedido concluido ainda pode ser cancelado por estorno da transacao.
+        permitir(CONCLUIDO, CANCELADO);
+        permitir(CANCELADO);
+    }
+
+    private final boolean pagamentoConfirmado;
+
+    PedidoStatus(boolean pagamentoConfirmado) {
+        this.pagamentoConfirmado = pagamentoConfirmado;
+    }
+
+    private static void permitir(PedidoStatus origem, PedidoStatus... destinos) {
+        Set<PedidoStatus> conjunto = EnumSet.noneOf(PedidoStatus.class);
+        Collections.addAll(conjunto, destinos);
+        DESTINOS.put(origem, Collections.unmodifiableSet(conjunto));
+        for (PedidoStatus destino : destinos) {
+            ORIGENS.computeIfAbsent(destino, d -> EnumSet.noneOf(PedidoStatus.class)).add(origem);
+        }
+    }
+
+    public boolean isPagamentoConfirmado() {
+        return pagamentoConfirmado;
+    }
+
+    public boolean permite(PedidoStatus destino) {
+        return DESTINOS.get(this).contains(destino);
+    }
+
+    public Set<PedidoStatus> destinos() {
+        return DESTINOS.get(this);
+    }
+
+    /**
+     * Status a partir dos quais o pedido pode passar para o destino.
+     */
+    public static Set<PedidoStatus> origensDe(PedidoStatus destino) {
+        Set<PedidoStatus> origens = ORIGENS.get(destino);
+        return origens == null ? Set.of() : Collections.unmodifiableSet(origens);
+    }
 }
@@ -0,0 +1,8 @@
+package com.metalSpring.model.enums;
+
+public enum ReservaEstoqueStatus {
+    ATIVA,
+    CONFIRMADA,
+    LIBERADA,
+    EXPIRADA
+}
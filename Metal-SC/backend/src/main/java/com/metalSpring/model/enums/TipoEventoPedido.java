@@ -0,0 +1,16 @@
+package com.metalSpring.model.enums;
+
+public enum TipoEventoPedido {
+    CRIADO,
+    CHAT_ABERTO,
+    PROPOSTA_ENVIADA,
+    NEGOCIACAO_APROVADA,
+    APROVACAO_DUPLA,
+    STATUS_ALTERADO,
+    PAGAMENTO_LIBERADO,
+    PAGAMENTO_INFORMADO,
+    PAGAMENTO_CONFIRMADO,
+    CANCELADO,
+    // Eventos migrados do historico em texto, sem tipo nem autor.
+    LEGADO
+}
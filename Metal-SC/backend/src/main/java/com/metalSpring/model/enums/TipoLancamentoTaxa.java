@@ -0,0 +1,7 @@
+package com.metalSpring.model.enums;
+
+public enum TipoLancamentoTaxa {
+    TAXA,
+    BAIXA,
+    SALDO_INICIAL
+}
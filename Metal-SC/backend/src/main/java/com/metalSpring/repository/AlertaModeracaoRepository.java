@@ -2,22 +2,149 @@ package com.metalSpring.repository;
 
 import com.metalSpring.model.entity.AlertaModeracao;
 import com.metalSpring.model.enums.AlertaModeracaoStatus;
+import com.metalSpring.model.enums.NivelRiscoModeracao;
 import com.metalSpring.model.enums.UsuarioTipo;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface AlertaModeracaoRepository extends JpaRepository<AlertaModeracao, String> {
-    List<AlertaModeracao> findAllByOrderByDataHoraDesc();
-    List<AlertaModeracao> findByUsuarioIdOrderByDataHoraDesc(String usuarioId);
     List<AlertaModeracao> findByConversaId(String conversaId);
     List<AlertaModeracao> findByMensagem_ConversaId(String conversaId);
-    List<AlertaModeracao> findByDataHoraBetweenOrderByDataHoraDesc(LocalDateTime inicio, LocalDateTime fim);
-    List<AlertaModeracao> findByTipoInfracaoContainingIgnoreCaseOrderByDataHoraDesc(String tipoInfracao);
-    List<AlertaModeracao> findByStatusOrderByDataHoraDesc(AlertaModeracaoStatus status);
-    long countByStatus(AlertaModeracaoStatus status);
-    long countByUsuarioId(String usuarioId);
     long countByUsuarioTipo(UsuarioTipo usuarioTipo);
+
+    /**
+     * Alertas com todos os filtros informados (nulos sao ignorados), do mais recente
+     * para o mais antigo, continuando depois de (cursorData, cursorId) quando informado.
+     */
+    @Query("SELECT a FROM AlertaModeracao a JOIN FETCH a.usuario " +
+            "LEFT JOIN FETCH a.mensagem m LEFT JOIN FETCH m.conversa LEFT JOIN FETCH a.conversa LEFT JOIN FETCH a.peca " +
+            "WHERE (:usuarioId IS NULL OR a.usuario.id = :usuarioId) " +
+            "AND (:inicio IS NULL OR a.dataHora >= :inicio) " +
+            "AND (:fim IS NULL OR a.dataHora < :fim) " +
+            "AND (:tipo IS NULL OR LOWER(a.tipoInfracao) LIKE LOWER(CONCAT('%', :tipo, '%'))) " +
+            "AND (:status IS NULL OR a.status = :status) " +
+            "AND (:risco IS NULL OR a.nivelRisco = :risco) " +
+            "AND (:cursorData IS NULL OR a.dataHora < :cursorData OR (a.dataHora = :cursorData AND a.id < :cursorId)) " +
+            "ORDER BY a.dataHora DESC, a.id DESC")
+    List<AlertaModeracao> buscar(@Param("usuarioId") String usuarioId,
+                                 @Param("inicio") LocalDateTime inicio,
+                                 @Param("fim") LocalDateTime fim,
+                                 @Param("tipo") String tipo,
+                                 @Param("status") AlertaModeracaoStatus status,
+                                 @Param("risco") NivelRiscoModeracao risco,
+                                 @Param("cursorData") LocalDateTime cursorData,
+                                 @Param("cursorId") String cursorId,
+                                 Pageable pageable);
+
+    /**
+     * Candidatos da fila de revisao: pendentes sem reserva valida, do maior risco
+     * para o menor e, no mesmo risco, do mais antigo para o mais novo.
+     */
+    @Query("SELECT a.id, a.versao FROM AlertaModeracao a " +
+            "WHERE a.status = :status AND (a.reservadoAte IS NULL OR a.reservadoAte < :agora) " +
+            "ORDER BY a.prioridade DESC, a.dataHora ASC, a.id ASC")
+    List<Object[]> findCandidatosRevisao(@Param("status") AlertaModeracaoStatus status,
+                                         @Param("agora") LocalDateTime agora,
+                                         Pageable pageable);
+
+    // Compare-and-set pela versao: so um moderador consegue reservar cada alerta.
+    @Modifying
+    @Query("UPDATE AlertaModeracao a SET a.reservadoPor = :moderadorId, a.reservadoAte = :ate, a.versao = a.versao + 1 " +
+            "WHERE a.id = :id AND a.versao = :versao")
+    int reservar(@Param("id") String id,
+                 @Param("versao") Long versao,
+                 @Param("moderadorId") String moderadorId,
+                 @Param("ate") LocalDateTime ate);
+
+    @Modifying
+    @Query("UPDATE AlertaModeracao a SET a.reservadoAte = :ate, a.versao = a.versao + 1 " +
+            "WHERE a.id = :id AND a.reservadoPor = :moderadorId AND a.reservadoAte >= :agora AND a.status = :status")
+    int renovarReserva(@Param("id") String id,
+                       @Param("moderadorId") String moderadorId,
+                       @Param("agora") LocalDateTime agora,
+                       @Param("ate") LocalDateTime ate,
+                       @Param("status") AlertaModeracaoStatus status);
+
+    @Modifying
+    @Query("UPDATE AlertaModeracao a SET a.reservadoPor = NULL, a.reservadoAte = NULL, a.versao = a.versao + 1 " +
+            "WHERE a.id = :id AND a.reservadoPor = :moderadorId")
+    int liberarReserva(@Param("id") String id, @Param("moderadorId") String moderadorId);
+
+    @Modifying
+    @Query("UPDATE AlertaModeracao a SET a.status = :status, a.reservadoPor = NULL, a.reservadoAte = NULL, a.versao = a.versao + 1 " +
+            "WHERE a.id = :id AND a.reservadoPor = :moderadorId AND a.reservadoAte >= :agora")
+    int concluirRevisao(@Param("id") String id,
+                        @Param("moderadorId") String moderadorId,
+                        @Param("agora") LocalDateTime agora,
+                        @Param("status") AlertaModeracaoStatus status);
+
+    // Alteracao direta de status: recusada se o alerta mudou de status ou esta reservado, dentro do prazo, por outro moderador.
+    @Modifying
+    @Query("UPDATE AlertaModeracao a SET a.status = :status, a.reservadoPor = NULL, a.reservadoAte = NULL, a.versao = a.versao + 1 " +
+            "WHERE a.id = :id AND a.status = :atual " +
+            "AND (a.reservadoPor IS NULL OR a.reservadoPor = :moderadorId OR a.reservadoAte < :agora)")
+    int alterarStatus(@Param("id") String id,
+                      @Param("atual") AlertaModeracaoStatus atual,
+                      @Param("status") AlertaModeracaoStatus status,
+                      @Param("moderadorId") String moderadorId,
+                      @Param("agora") LocalDateTime agora);
+
+    @Query("SELECT a.status FROM AlertaModeracao a WHERE a.id = :id")
+    Optional<AlertaModeracaoStatus> findStatus(@Param("id") String id);
+
+    @Query("SELECT a FROM AlertaModeracao a JOIN FETCH a.usuario " +
+            "LEFT JOIN FETCH a.mensagem m LEFT JOIN FETCH m.conversa LEFT JOIN FETCH a.conversa LEFT JOIN FETCH a.peca " +
+            "WHERE a.id IN :ids ORDER BY a.prioridade DESC, a.dataHora ASC, a.id ASC")
+    List<AlertaModeracao> findParaRevisao(@Param("ids") Collection<String> ids);
+
+    // Alertas gravados antes das colunas de fila existirem.
+    @Modifying
+    @Query("UPDATE AlertaModeracao a SET a.prioridade = :prioridade WHERE a.nivelRisco = :risco AND a.prioridade IS NULL")
+    int preencherPrioridade(@Param("risco") NivelRiscoModeracao risco, @Param("prioridade") int prioridade);
+
+    @Modifying
+    @Query("UPDATE AlertaModeracao a SET a.versao = 0 WHERE a.versao IS NULL")
+    int preencherVersao();
+
+    // Alertas pendentes ainda na janela de agrupamento, do mais recente para o mais antigo.
+    @Query("SELECT a.id, a.usuario.id, a.chaveAgrupamento FROM AlertaModeracao a " +
+            "WHERE a.usuario.id IN :usuarioIds AND a.chaveAgrupamento IN :chaves " +
+            "AND a.status = :status AND a.ultimaOcorrencia >= :desde " +
+            "ORDER BY a.ultimaOcorrencia DESC")
+    List<Object[]> findAbertosParaAgrupar(@Param("usuarioIds") Collection<String> usuarioIds,
+                                          @Param("chaves") Collection<String> chaves,
+                                          @Param("status") AlertaModeracaoStatus status,
+                                          @Param("desde") LocalDateTime desde);
+
+    // Incrementa a versao para que um save do alerta carregado antes nao sobrescreva as ocorrencias.
+    // A reserva do moderador nao depende da versao, so de reservadoPor e reservadoAte.
+    @Modifying
+    @Query("UPDATE AlertaModeracao a SET a.ocorrencias = a.ocorrencias + :quantidade, a.ultimaOcorrencia = :agora, " +
+            "a.versao = a.versao + 1 WHERE a.id = :id")
+    int somarOcorrencias(@Param("id") String id, @Param("quantidade") int quantidade, @Param("agora") LocalDateTime agora);
+
+    @Query("SELECT a.dataHora FROM AlertaModeracao a WHERE a.id = :id")
+    Optional<LocalDateTime> findDataHora(@Param("id") String id);
+
+    @Query("SELECT a.status, a.nivelRisco, a.tipoInfracao, COUNT(a), SUM(COALESCE(a.ocorrencias, 1)) FROM AlertaModeracao a " +
+            "GROUP BY a.status, a.nivelRisco, a.tipoInfracao")
+    List<Object[]> contarPorStatusRiscoETipo();
+
+    // Ocorrencias por hora do primeiro registro do alerta.
+    @Query("SELECT YEAR(a.dataHora), MONTH(a.dataHora), DAY(a.dataHora), HOUR(a.dataHora), SUM(COALESCE(a.ocorrencias, 1)) " +
+            "FROM AlertaModeracao a WHERE a.dataHora >= :desde " +
+            "GROUP BY YEAR(a.dataHora), MONTH(a.dataHora), DAY(a.dataHora), HOUR(a.dataHora)")
+    List<Object[]> contarPorHora(@Param("desde") LocalDateTime desde);
+
+    @Query("SELECT a.usuario.id, SUM(COALESCE(a.ocorrencias, 1)) FROM AlertaModeracao a GROUP BY a.usuario.id")
+    List<Object[]> contarPorUsuario();
 }
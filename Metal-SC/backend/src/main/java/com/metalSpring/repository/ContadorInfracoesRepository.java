@@ -0,0 +1,17 @@
+package com.metalSpring.repository;
+
+import com.metalSpring.model.entity.ContadorInfracoes;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ContadorInfracoesRepository extends JpaRepository<ContadorInfracoes, String> {
+
+    @Modifying
+    @Query(value = "INSERT INTO contadores_infracoes (usuario_id, quantidade) VALUES (:usuarioId, :delta) " +
+            "ON DUPLICATE KEY UPDATE quantidade = quantidade + :delta", nativeQuery = true)
+    int somar(@Param("usuarioId") String usuarioId, @Param("delta") long delta);
+}
@@ -0,0 +1,40 @@
+package com.metalSpring.repository;
+
+import com.metalSpring.model.embeddable.ContadorNaoLidasId;
+import com.metalSpring.model.entity.ContadorNaoLidas;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ContadorNaoLidasRepository extends JpaRepository<ContadorNaoLidas, ContadorNaoLidasId> {
+
+    @Modifying
+    @Query(value = "INSERT INTO contadores_nao_lidas (usuario_id, conversa_id, quantidade) VALUES (:usuarioId, :conversaId, :delta) " +
+            "ON DUPLICATE KEY UPDATE quantidade = quantidade + :delta", nativeQuery = true)
+    int somar(@Param("usuarioId") String usuarioId, @Param("conversaId") String conversaId, @Param("delta") long delta);
+
+    @Modifying
+    @Query("UPDATE ContadorNaoLidas c SET c.quantidade = c.quantidade - :delta " +
+            "WHERE c.id.usuarioId = :usuarioId AND c.id.conversaId = :conversaId")
+    int subtrair(@Param("usuarioId") String usuarioId, @Param("conversaId") String conversaId, @Param("delta") long delta);
+
+    // Trava a linha ate o fim da transacao; incrementos concorrentes esperam o zerar.
+    @Query(value = "SELECT quantidade FROM contadores_nao_lidas WHERE usuario_id = :usuarioId AND conversa_id = :conversaId FOR UPDATE",
+            nativeQuery = true)
+    Long travarQuantidade(@Param("usuarioId") String usuarioId, @Param("conversaId") String conversaId);
+
+    @Modifying
+    @Query("DELETE FROM ContadorNaoLidas c WHERE c.id.usuarioId = :usuarioId AND c.id.conversaId = :conversaId")
+    int zerar(@Param("usuarioId") String usuarioId, @Param("conversaId") String conversaId);
+
+    @Modifying
+    @Query("DELETE FROM ContadorNaoLidas c WHERE c.id.usuarioId = :usuarioId AND c.id.conversaId = :conversaId AND c.quantidade <= 0")
+    int removerSeZerado(@Param("usuarioId") String usuarioId, @Param("conversaId") String conversaId);
+
+    @Modifying
+    @Query("DELETE FROM ContadorNaoLidas c WHERE c.id.conversaId = :conversaId")
+    int removerConversa(@Param("conversaId") String conversaId);
+}
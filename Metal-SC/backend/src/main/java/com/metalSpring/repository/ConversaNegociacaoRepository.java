@@ -1,9 +1,12 @@
 package com.metalSpring.repository;
 
+import com.metalSpring.model.dto.NegociacaoResumoDTO;
 import com.metalSpring.model.entity.ConversaNegociacao;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -12,4 +15,20 @@ public interface ConversaNegociacaoRepository extends JpaRepository<ConversaNego
     Optional<ConversaNegociacao> findByPedidoId(String pedidoId);
     List<ConversaNegociacao> findByClienteIdOrderByAtualizadaEmDesc(String clienteId);
     List<ConversaNegociacao> findByRevendedorIdOrderByAtualizadaEmDesc(String revendedorId);
+
+    String SELECT_RESUMO = "SELECT new com.metalSpring.model.dto.NegociacaoResumoDTO(" +
+            "c.id, pd.id, p.id, p.nome, cl.id, cl.nome, r.id, COALESCE(r.nomeLoja, r.nome), " +
+            "c.valorOriginal, c.valorNegociado, c.valorFinalAcordado, " +
+            "c.aprovacaoCliente, c.aprovacaoRevendedor, c.status, c.criadaEm, c.atualizadaEm) " +
+            "FROM ConversaNegociacao c JOIN c.peca p JOIN c.cliente cl JOIN c.revendedor r LEFT JOIN c.pedido pd ";
+
+    @Query(SELECT_RESUMO +
+            "WHERE cl.id = :clienteId AND (c.ocultaParaCliente IS NULL OR c.ocultaParaCliente = false) " +
+            "ORDER BY c.atualizadaEm DESC")
+    List<NegociacaoResumoDTO> listarResumoPorCliente(@Param("clienteId") String clienteId);
+
+    @Query(SELECT_RESUMO +
+            "WHERE r.id = :revendedorId AND (c.ocultaParaRevendedor IS NULL OR c.ocultaParaRevendedor = false) " +
+            "ORDER BY c.atualizadaEm DESC")
+    List<NegociacaoResumoDTO> listarResumoPorRevendedor(@Param("revendedorId") String revendedorId);
 }
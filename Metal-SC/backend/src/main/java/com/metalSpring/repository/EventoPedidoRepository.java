@@ -0,0 +1,40 @@
+package com.metalSpring.repository;
+
+import com.metalSpring.model.entity.EventoPedido;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EventoPedidoRepository extends JpaRepository<EventoPedido, String> {
+
+    /**
+     * Reserva a proxima sequencia de cada pedido no contador
+     * pedidos.ultimo_seq_evento. O UPDATE trava a linha do pedido ate o commit,
+     * entao eventos simultaneos do mesmo pedido recebem sequencias distintas.
+     * O MAX(seq), resolvido pelo indice unico (pedido_id, seq), cobre pedidos
+     * com eventos gravados antes do contador existir.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE pedidos SET ultimo_seq_evento = GREATEST(ultimo_seq_evento, " +
+            "(SELECT COALESCE(MAX(e.seq), 0) FROM eventos_pedido e WHERE e.pedido_id = pedidos.id)) + 1 " +
+            "WHERE id IN :pedidoIds", nativeQuery = true)
+    int reservarSeq(@Param("pedidoIds") Collection<String> pedidoIds);
+
+    // Le o valor gravado pela propria transacao em reservarSeq.
+    @Query(value = "SELECT id, ultimo_seq_evento FROM pedidos WHERE id IN :pedidoIds", nativeQuery = true)
+    List<Object[]> findUltimosSeq(@Param("pedidoIds") Collection<String> pedidoIds);
+
+    @Query("SELECT e FROM EventoPedido e WHERE e.pedidoId = :pedidoId AND e.seq > :depoisDe ORDER BY e.seq")
+    List<EventoPedido> findPagina(@Param("pedidoId") String pedidoId, @Param("depoisDe") long depoisDe, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM EventoPedido e WHERE e.pedidoId = :pedidoId")
+    int removerPorPedido(@Param("pedidoId") String pedidoId);
+}
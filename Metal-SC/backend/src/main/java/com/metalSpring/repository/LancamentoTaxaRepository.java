@@ -0,0 +1,12 @@
+package com.metalSpring.repository;
+
+import com.metalSpring.model.entity.LancamentoTaxa;
+import com.metalSpring.model.enums.TipoLancamentoTaxa;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LancamentoTaxaRepository extends JpaRepository<LancamentoTaxa, String> {
+
+    boolean existsByPedidoIdAndTipo(String pedidoId, TipoLancamentoTaxa tipo);
+}
@@ -1,8 +1,15 @@
 package com.metalSpring.repository;
 
 import com.metalSpring.model.entity.MensagemNegociacao;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -10,6 +17,85 @@ public interface MensagemNegociacaoRepository extends JpaRepository<MensagemNego
     List<MensagemNegociacao> findByConversaIdOrderByDataEnvioAsc(String conversaId);
     long countByConversaIdAndDestinatarioIdAndLidaFalseAndRemovidaFalse(String conversaId, String destinatarioId);
     List<MensagemNegociacao> findByConversaIdAndDestinatarioIdAndLidaFalse(String conversaId, String destinatarioId);
+
+    // So remove se ainda nao lida: quem vencer a disputa com a leitura desconta o contador.
+    @Modifying
+    @Query("UPDATE MensagemNegociacao m SET m.removida = true, m.conteudo = :conteudo " +
+            "WHERE m.id = :id AND m.lida = false AND m.removida = false")
+    int removerNaoLida(@Param("id") String id, @Param("conteudo") String conteudo);
+
+    @Modifying
+    @Query("UPDATE MensagemNegociacao m SET m.removida = true, m.conteudo = :conteudo WHERE m.id = :id")
+    int remover(@Param("id") String id, @Param("conteudo") String conteudo);
+
+    @Modifying
+    @Query("UPDATE MensagemNegociacao m SET m.lida = true " +
+            "WHERE m.conversa.id = :conversaId AND m.destinatario.id = :destinatarioId AND m.lida = false")
+    int marcarTodasComoLidas(@Param("conversaId") String conversaId, @Param("destinatarioId") String destinatarioId);
+
+    // Ate a mensagem (data, id) inclusive, na mesma ordem da paginacao.
+    @Modifying
+    @Query("UPDATE MensagemNegociacao m SET m.lida = true " +
+            "WHERE m.conversa.id = :conversaId AND m.destinatario.id = :destinatarioId AND m.lida = false " +
+            "AND m.removida = false AND (m.dataEnvio < :data OR (m.dataEnvio = :data AND m.id <= :id))")
+    int marcarComoLidasAte(@Param("conversaId") String conversaId,
+                           @Param("destinatarioId") String destinatarioId,
+                           @Param("data") LocalDateTime data,
+                           @Param("id") String id);
     long countByDestinatarioIdAndLidaFalseAndRemovidaFalse(String destinatarioId);
     List<MensagemNegociacao> findByDestinatarioIdAndLidaFalseAndRemovidaFalseOrderByDataEnvioDesc(String destinatarioId);
+
+    @Query("SELECT m.dataEnvio FROM MensagemNegociacao m WHERE m.id = :id AND m.conversa.id = :conversaId")
+    Optional<LocalDateTime> findDataEnvio(@Param("conversaId") String conversaId, @Param("id") String id);
+
+    // Paginacao por (dataEnvio, id), usando o indice (conversa_id, data_envio).
+    @Query("SELECT m FROM MensagemNegociacao m JOIN FETCH m.remetente JOIN FETCH m.destinatario " +
+            "WHERE m.conversa.id = :conversaId AND " +
+            "(m.dataEnvio > :data OR (m.dataEnvio = :data AND m.id > :id)) " +
+            "ORDER BY m.dataEnvio ASC, m.id ASC")
+    List<MensagemNegociacao> findDepoisDe(@Param("conversaId") String conversaId,
+                                          @Param("data") LocalDateTime data,
+                                          @Param("id") String id,
+                                          Pageable pageable);
+
+    @Query("SELECT m FROM MensagemNegociacao m JOIN FETCH m.remetente JOIN FETCH m.destinatario " +
+            "WHERE m.conversa.id = :conversaId AND " +
+            "(m.dataEnvio < :data OR (m.dataEnvio = :data AND m.id < :id)) " +
+            "ORDER BY m.dataEnvio DESC, m.id DESC")
+    List<MensagemNegociacao> findAntesDe(@Param("conversaId") String conversaId,
+                                         @Param("data") LocalDateTime data,
+                                         @Param("id") String id,
+                                         Pageable pageable);
+
+    @Query("SELECT m FROM MensagemNegociacao m JOIN FETCH m.remetente JOIN FETCH m.destinatario " +
+            "WHERE m.conversa.id = :conversaId ORDER BY m.dataEnvio DESC, m.id DESC")
+    List<MensagemNegociacao> findRecentes(@Param("conversaId") String conversaId, Pageable pageable);
+
+    // [conversaId, naoLidas] das conversas informadas
+    @Query("SELECT m.conversa.id, COUNT(m) FROM MensagemNegociacao m " +
+            "WHERE m.conversa.id IN :conversaIds AND m.destinatario.id = :destinatarioId " +
+            "AND m.lida = false AND m.removida = false GROUP BY m.conversa.id")
+    List<Object[]> contarNaoLidasPorConversa(@Param("conversaIds") Collection<String> conversaIds,
+                                             @Param("destinatarioId") String destinatarioId);
+
+    // [destinatarioId, conversaId, naoLidas] de todas as conversas, para reconstruir os contadores
+    @Query("SELECT m.destinatario.id, m.conversa.id, COUNT(m) FROM MensagemNegociacao m " +
+            "WHERE m.lida = false AND m.removida = false GROUP BY m.destinatario.id, m.conversa.id")
+    List<Object[]> contarNaoLidasPorDestinatarioEConversa();
+
+    // [conversaId, id, pecaNome, remetenteNome, conteudo, dataEnvio] da nao lida mais recente de cada conversa
+    @Query("SELECT c.id, m.id, p.nome, r.nome, m.conteudo, m.dataEnvio " +
+            "FROM MensagemNegociacao m JOIN m.conversa c LEFT JOIN c.peca p JOIN m.remetente r " +
+            "WHERE c.id IN :conversaIds AND m.destinatario.id = :destinatarioId " +
+            "AND m.lida = false AND m.removida = false AND m.dataEnvio = " +
+            "(SELECT MAX(u.dataEnvio) FROM MensagemNegociacao u WHERE u.conversa.id = c.id " +
+            "AND u.destinatario.id = :destinatarioId AND u.lida = false AND u.removida = false)")
+    List<Object[]> findUltimasNaoLidas(@Param("destinatarioId") String destinatarioId,
+                                       @Param("conversaIds") Collection<String> conversaIds);
+
+    // [conversaId, id, remetenteId, conteudo, dataEnvio, tipo] da ultima mensagem de cada conversa
+    @Query("SELECT m.conversa.id, m.id, m.remetente.id, m.conteudo, m.dataEnvio, m.tipo " +
+            "FROM MensagemNegociacao m WHERE m.conversa.id IN :conversaIds AND m.dataEnvio = " +
+            "(SELECT MAX(u.dataEnvio) FROM MensagemNegociacao u WHERE u.conversa.id = m.conversa.id)")
+    List<Object[]> findUltimasMensagens(@Param("conversaIds") Collection<String> conversaIds);
 }
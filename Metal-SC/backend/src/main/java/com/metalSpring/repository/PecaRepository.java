@@ -1,20 +1,66 @@
 package com.metalSpring.repository;
 
+import com.metalSpring.model.dto.PecaResumoDTO;
 import com.metalSpring.model.entity.Peca;
 import com.metalSpring.model.enums.PecaEstado;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface PecaRepository extends JpaRepository<Peca, String> {
 
-    @Query("SELECT p FROM Peca p LEFT JOIN p.vendedor v ORDER BY v.premiumAtivo DESC, p.id DESC")
+    @Query("SELECT p FROM Peca p ORDER BY p.vendedorPremium DESC, p.id DESC")
     List<Peca> findAllOrderByPremium();
 
+    @Query("SELECT p FROM Peca p WHERE p.disponivel = true " +
+            "ORDER BY p.vendedorPremium DESC, p.id DESC")
+    List<Peca> findDisponiveisOrderByPremium();
+
+    // Listagem leve do catalogo, com o mesmo cursor (vendedorPremium, id) da busca avancada.
+    @Query("SELECT new com.metalSpring.model.dto.PecaResumoDTO(" +
+            "p.id, p.nome, p.preco, p.endereco.cidade, COALESCE(v.nomeLoja, v.nome), p.vendedorPremium) " +
+            "FROM Peca p LEFT JOIN p.vendedor v WHERE p.disponivel = true AND " +
+            "(:cursorId IS NULL OR " +
+            "(:cursorPremium = true AND (p.vendedorPremium = false OR p.id < :cursorId)) OR " +
+            "(:cursorPremium = false AND p.vendedorPremium = false AND p.id < :cursorId)) " +
+            "ORDER BY p.vendedorPremium DESC, p.id DESC")
+    List<PecaResumoDTO> listarResumo(@Param("cursorPremium") Boolean cursorPremium,
+                                     @Param("cursorId") String cursorId,
+                                     Pageable pageable);
+
+    // Baixa condicional: afeta 0 linhas quando nao ha unidades suficientes, sem ler o estoque antes.
+    @Modifying
+    @Query("UPDATE Peca p SET p.estoque = p.estoque - :quantidade WHERE p.id = :id AND p.estoque >= :quantidade")
+    int baixarEstoque(@Param("id") String id, @Param("quantidade") int quantidade);
+
+    @Modifying
+    @Query("UPDATE Peca p SET p.estoque = p.estoque + :quantidade WHERE p.id = :id")
+    int devolverEstoque(@Param("id") String id, @Param("quantidade") int quantidade);
+
+    @Modifying
+    @Query("UPDATE Peca p SET p.estoque = :quantidade WHERE p.id = :id")
+    int definirEstoque(@Param("id") String id, @Param("quantidade") int quantidade);
+
+    @Modifying
+    @Query("UPDATE Peca p SET p.vendedorPremium = :premium WHERE p.vendedor.id = :vendedorId")
+    int definirVendedorPremium(@Param("vendedorId") String vendedorId, @Param("premium") boolean premium);
+
+    // Alinha a copia com o revendedor, por exemplo apos a expiracao em lote do premium.
+    @Modifying
+    @Query("UPDATE Peca p SET p.vendedorPremium = :premium WHERE p.vendedorPremium <> :premium " +
+            "AND p.vendedor.id IN (SELECT r.id FROM Revendedor r WHERE COALESCE(r.premiumAtivo, false) = :premium)")
+    int sincronizarVendedorPremium(@Param("premium") boolean premium);
+
+    @Query("SELECT p.id, i FROM Peca p JOIN p.imagens i WHERE p.id IN :ids")
+    List<Object[]> findImagensByPecaIds(@Param("ids") Collection<String> ids);
+
     
     List<Peca> findByNomeContainingIgnoreCase(String nome);
 
@@ -68,8 +114,9 @@ public interface PecaRepository extends JpaRepository<Peca, String> {
     
     @Query("SELECT p FROM Peca p WHERE " +
             "(:nome IS NULL OR LOWER(p.nome) LIKE LOWER(CONCAT('%', :nome, '%'))) AND " +
-            "(:marca IS NULL OR LOWER(p.marca) = LOWER(:marca)) AND " +
-            "(:categoria IS NULL OR LOWER(p.categoria) = LOWER(:categoria)) AND " +
+            "(:marca IS NULL OR p.marca = :marca) AND " +
+            "(:categoria IS NULL OR p.categoria = :categoria) AND " +
+            "(:modeloVeiculo IS NULL OR LOWER(p.modeloVeiculo) LIKE LOWER(CONCAT('%', :modeloVeiculo, '%'))) AND " +
             "(:anoMin IS NULL OR p.ano >= :anoMin) AND " +
             "(:anoMax IS NULL OR p.ano <= :anoMax) AND " +
             "(:precoMin IS NULL OR p.preco >= :precoMin) AND " +
@@ -78,12 +125,43 @@ public interface PecaRepository extends JpaRepository<Peca, String> {
     List<Peca> buscarAvancada(@Param("nome") String nome,
                               @Param("marca") String marca,
                               @Param("categoria") String categoria,
+                              @Param("modeloVeiculo") String modeloVeiculo,
                               @Param("anoMin") Integer anoMin,
                               @Param("anoMax") Integer anoMax,
                               @Param("precoMin") Double precoMin,
                               @Param("precoMax") Double precoMax,
                               @Param("estado") PecaEstado estado);
 
+    // Paginacao por cursor (keyset) na mesma ordem de findAllOrderByPremium:
+    // o cursor e o par (vendedorPremium, id) do ultimo item da pagina anterior.
+    // Marca e categoria sao comparadas direto, valendo a collation da coluna para maiusculas.
+    @Query("SELECT p FROM Peca p WHERE p.disponivel = true AND " +
+            "(:nome IS NULL OR LOWER(p.nome) LIKE LOWER(CONCAT('%', :nome, '%'))) AND " +
+            "(:marca IS NULL OR p.marca = :marca) AND " +
+            "(:categoria IS NULL OR p.categoria = :categoria) AND " +
+            "(:modeloVeiculo IS NULL OR LOWER(p.modeloVeiculo) LIKE LOWER(CONCAT('%', :modeloVeiculo, '%'))) AND " +
+            "(:anoMin IS NULL OR p.ano >= :anoMin) AND " +
+            "(:anoMax IS NULL OR p.ano <= :anoMax) AND " +
+            "(:precoMin IS NULL OR p.preco >= :precoMin) AND " +
+            "(:precoMax IS NULL OR p.preco <= :precoMax) AND " +
+            "(:estado IS NULL OR p.estado = :estado) AND " +
+            "(:cursorId IS NULL " +
+            "OR (:cursorPremium = true AND (p.vendedorPremium = false OR p.id < :cursorId)) " +
+            "OR (:cursorPremium = false AND p.vendedorPremium = false AND p.id < :cursorId)) " +
+            "ORDER BY p.vendedorPremium DESC, p.id DESC")
+    List<Peca> buscarAvancadaPorCursor(@Param("nome") String nome,
+                                       @Param("marca") String marca,
+                                       @Param("categoria") String categoria,
+                                       @Param("modeloVeiculo") String modeloVeiculo,
+                                       @Param("anoMin") Integer anoMin,
+                                       @Param("anoMax") Integer anoMax,
+                                       @Param("precoMin") Double precoMin,
+                                       @Param("precoMax") Double precoMax,
+                                       @Param("estado") PecaEstado estado,
+                                       @Param("cursorPremium") Boolean cursorPremium,
+                                       @Param("cursorId") String cursorId,
+                                       Pageable pageable);
+
     
     long countByCategoria(String categoria);
 
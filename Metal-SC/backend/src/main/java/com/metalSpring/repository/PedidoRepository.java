@@ -1,14 +1,18 @@
 package com.metalSpring.repository;
 
 import com.metalSpring.model.entity.Pedido;
+import com.metalSpring.model.enums.PagamentoStatus;
 import com.metalSpring.model.enums.PedidoStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PedidoRepository extends JpaRepository<Pedido, String> {
@@ -53,6 +57,37 @@ public interface PedidoRepository extends JpaRepository<Pedido, String> {
     @Query("SELECT AVG(p.valorTotal) FROM Pedido p WHERE p.status IN ('PAGAMENTO_CONFIRMADO', 'CONFIRMADO', 'EM_SEPARACAO', 'EM_PREPARACAO', 'ENVIADO', 'ENTREGUE', 'CONCLUIDO')")
     Double calcularValorMedioPedidos();
 
+    @Query("SELECT p.status FROM Pedido p WHERE p.id = :id")
+    Optional<PedidoStatus> findStatus(@Param("id") String id);
+
+    @Query("SELECT p.id, p.status FROM Pedido p WHERE p.id IN :ids")
+    List<Object[]> findStatusPorIds(@Param("ids") Collection<String> ids);
+
+    // Transicoes com compare-and-set: so alteram o pedido se o status atual for uma das origens.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Pedido p SET p.status = :novo WHERE p.id = :id AND p.status IN :origens")
+    int transicionar(@Param("id") String id, @Param("origens") Collection<PedidoStatus> origens,
+                     @Param("novo") PedidoStatus novo);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Pedido p SET p.status = :novo, p.statusPagamento = :pagamento WHERE p.id = :id AND p.status IN :origens")
+    int transicionarComPagamento(@Param("id") String id, @Param("origens") Collection<PedidoStatus> origens,
+                                 @Param("novo") PedidoStatus novo, @Param("pagamento") PagamentoStatus pagamento);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Pedido p SET p.status = :novo, p.statusPagamento = :pagamento WHERE p.id = :id AND p.status IN :origens " +
+            "AND p.aprovacaoCliente = true AND p.aprovacaoRevendedor = true")
+    int transicionarAprovado(@Param("id") String id, @Param("origens") Collection<PedidoStatus> origens,
+                             @Param("novo") PedidoStatus novo, @Param("pagamento") PagamentoStatus pagamento);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Pedido p SET p.status = :novo WHERE p.id IN :ids AND p.status IN :origens")
+    int transicionarEmLote(@Param("ids") Collection<String> ids, @Param("origens") Collection<PedidoStatus> origens,
+                           @Param("novo") PedidoStatus novo);
+
+    @Query("SELECT p.id FROM Pedido p WHERE p.id IN :ids AND p.status = :status")
+    List<String> findIdsComStatus(@Param("ids") Collection<String> ids, @Param("status") PedidoStatus status);
+
     void deleteByClienteId(String clienteId);
     void deleteByVendedorId(String vendedorId);
 }
@@ -0,0 +1,23 @@
+package com.metalSpring.repository;
+
+import com.metalSpring.model.entity.RegraModeracao;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RegraModeracaoRepository extends JpaRepository<RegraModeracao, String> {
+
+    List<RegraModeracao> findAllByOrderByTipoAscTermoAsc();
+
+    List<RegraModeracao> findByAtivoTrue();
+
+    boolean existsByTermoAndExpressaoRegular(String termo, boolean expressaoRegular);
+
+    boolean existsByTermoAndExpressaoRegularAndIdNot(String termo, boolean expressaoRegular, String id);
+
+    // Muda sempre que uma regra e criada, alterada ou removida.
+    @Query("SELECT COUNT(r), COALESCE(SUM(r.versao), 0), MAX(r.dataAtualizacao) FROM RegraModeracao r")
+    List<Object[]> calcularAssinatura();
+}
@@ -0,0 +1,54 @@
+package com.metalSpring.repository;
+
+import com.metalSpring.model.entity.ReservaEstoque;
+import com.metalSpring.model.enums.ReservaEstoqueStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ReservaEstoqueRepository extends JpaRepository<ReservaEstoque, String> {
+
+    // id, pecaId, quantidade; sem carregar entidades, que ficariam defasadas apos os updates abaixo.
+    @Query("SELECT r.id, r.pecaId, r.quantidade FROM ReservaEstoque r WHERE r.pedidoId = :pedidoId " +
+            "AND r.status = com.metalSpring.model.enums.ReservaEstoqueStatus.ATIVA ORDER BY r.criadaEm DESC")
+    List<Object[]> findAtivasPorPedido(@Param("pedidoId") String pedidoId);
+
+    @Query("SELECT r.pecaId, r.quantidade FROM ReservaEstoque r WHERE r.id = :id")
+    List<Object[]> findPecaEQuantidade(@Param("id") String id);
+
+    @Query("SELECT r.id FROM ReservaEstoque r WHERE r.status = com.metalSpring.model.enums.ReservaEstoqueStatus.ATIVA " +
+            "AND r.expiraEm < :agora ORDER BY r.expiraEm")
+    List<String> findIdsExpiradas(@Param("agora") LocalDateTime agora, Pageable pageable);
+
+    // Encerra a reserva apenas se ela ainda estiver ativa; quem recebe 1 e o responsavel por devolver o estoque.
+    @Modifying
+    @Query("UPDATE ReservaEstoque r SET r.status = :status WHERE r.id = :id " +
+            "AND r.status = com.metalSpring.model.enums.ReservaEstoqueStatus.ATIVA")
+    int encerrar(@Param("id") String id, @Param("status") ReservaEstoqueStatus status);
+
+    @Modifying
+    @Query("UPDATE ReservaEstoque r SET r.status = com.metalSpring.model.enums.ReservaEstoqueStatus.CONFIRMADA " +
+            "WHERE r.pedidoId = :pedidoId AND r.status = com.metalSpring.model.enums.ReservaEstoqueStatus.ATIVA")
+    int confirmarAtivas(@Param("pedidoId") String pedidoId);
+
+    @Query("SELECT r.pecaId, SUM(r.quantidade) FROM ReservaEstoque r WHERE r.pedidoId = :pedidoId " +
+            "AND r.status = com.metalSpring.model.enums.ReservaEstoqueStatus.CONFIRMADA GROUP BY r.pecaId")
+    List<Object[]> somarConfirmadasPorPeca(@Param("pedidoId") String pedidoId);
+
+    @Modifying
+    @Query("UPDATE ReservaEstoque r SET r.quantidade = r.quantidade - :quantidade WHERE r.id = :id " +
+            "AND r.status = com.metalSpring.model.enums.ReservaEstoqueStatus.ATIVA AND r.quantidade > :quantidade")
+    int reduzir(@Param("id") String id, @Param("quantidade") int quantidade);
+
+    @Modifying
+    @Query("UPDATE ReservaEstoque r SET r.expiraEm = :expiraEm WHERE r.pedidoId = :pedidoId " +
+            "AND r.status = com.metalSpring.model.enums.ReservaEstoqueStatus.ATIVA")
+    int renovar(@Param("pedidoId") String pedidoId, @Param("expiraEm") LocalDateTime expiraEm);
+}
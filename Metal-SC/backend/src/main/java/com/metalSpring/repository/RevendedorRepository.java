@@ -2,7 +2,9 @@ package com.metalSpring.repository;
 
 import com.metalSpring.model.entity.Revendedor;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -44,4 +46,13 @@ public interface RevendedorRepository extends JpaRepository<Revendedor, String>
     List<Revendedor> findRecentesCadastrados();
 
     List<Revendedor> findByPremiumAtivoTrueAndPremiumAteBefore(LocalDateTime dataLimite);
+
+    @Modifying
+    @Query("UPDATE Revendedor r SET r.premiumAtivo = false, r.premiumAte = null " +
+           "WHERE r.premiumAtivo = true AND r.premiumAte < :dataLimite")
+    int expirarPremium(@Param("dataLimite") LocalDateTime dataLimite);
+
+    // Saldos anteriores ao extrato de taxas, usados apenas para abrir os saldos na primeira subida.
+    @Query("SELECT r.id, r.saldoTaxas FROM Revendedor r WHERE r.saldoTaxas > 0")
+    List<Object[]> findSaldosTaxasLegados();
 }
@@ -0,0 +1,23 @@
+package com.metalSpring.repository;
+
+import com.metalSpring.model.entity.SaldoTaxas;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+
+@Repository
+public interface SaldoTaxasRepository extends JpaRepository<SaldoTaxas, String> {
+
+    @Modifying
+    @Query(value = "INSERT INTO saldos_taxas (revendedor_id, saldo) VALUES (:revendedorId, :delta) " +
+            "ON DUPLICATE KEY UPDATE saldo = saldo + :delta", nativeQuery = true)
+    int somar(@Param("revendedorId") String revendedorId, @Param("delta") BigDecimal delta);
+
+    // Trava a linha do saldo ate o fim da transacao; incrementos concorrentes esperam.
+    @Query(value = "SELECT saldo FROM saldos_taxas WHERE revendedor_id = :revendedorId FOR UPDATE", nativeQuery = true)
+    BigDecimal travarSaldo(@Param("revendedorId") String revendedorId);
+}
@@ -0,0 +1,294 @@
+package com.metalSpring.security;
+
+import com.metalSpring.services.MetricasService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Torna idempotentes as mutacoes configuradas quando o cliente envia o
+ * cabecalho Idempotency-Key.
+ *
+ * A primeira requisicao com uma chave executa normalmente e tem a resposta
+ * guardada; repeticoes com a mesma chave (por usuario) recebem a resposta
+ * original sem passar pelos services, e repeticoes simultaneas aguardam a
+ * primeira terminar. Reusar a chave com outro corpo ou outro endpoint e
+ * recusado. As chaves expiram apos o TTL e o total guardado e limitado,
+ * descartando as mais antigas que ja terminaram. So ficam guardadas as
+ * respostas 2xx e os erros 4xx que se repetiriam com o mesmo corpo; 400
+ * (os controllers o usam tambem para falhas de regra momentaneas), 409,
+ * 429 e 5xx liberam a chave para que o cliente possa tentar de novo.
+ * Corpos acima do limite configurado sao recusados com 413 antes de ir para
+ * a memoria.
+ */
+@Component
+public class IdempotenciaFilter extends OncePerRequestFilter {
+
+    public static final String CABECALHO = "Idempotency-Key";
+
+    private static final AntPathMatcher CAMINHOS = new AntPathMatcher();
+
+    private static final Set<Integer> ERROS_DETERMINISTICOS = Set.of(403, 404, 405, 410, 413, 415, 422);
+
+    @Autowired
+    private MetricasService metricasService;
+
+    @Value("${app.idempotencia.caminhos:/api/pedidos,/api/transacoes,/api/transacoes/*/processar,/api/negociacoes/*/mensagens}")
+    private List<String> caminhos;
+
+    @Value("${app.idempotencia.ttl-minutos:60}")
+    private long ttlMinutos;
+
+    @Value("${app.idempotencia.max-entradas:10000}")
+    private int maxEntradas;
+
+    @Value("${app.idempotencia.espera-ms:30000}")
+    private long esperaMs;
+
+    @Value("${app.idempotencia.max-corpo-bytes:1048576}")
+    private int maxCorpoBytes;
+
+    private final Map<String, Entrada> entradas = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<String> ordem = new ConcurrentLinkedQueue<>();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod()) || request.getHeader(CABECALHO) == null) {
+            return true;
+        }
+        String caminho = request.getServletPath();
+        return caminhos.stream().noneMatch(padrao -> CAMINHOS.match(padrao, caminho));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String chaveCliente = request.getHeader(CABECALHO).trim();
+        if (chaveCliente.isEmpty() || chaveCliente.length() > 255) {
+            responderErro(response, HttpStatus.BAD_REQUEST, "Idempotency-Key invalida");
+            return;
+        }
+
+        // O corpo fica inteiro em memoria para a impressao digital; acima do limite nem e lido.
+        if (request.getContentLengthLong() > maxCorpoBytes) {
+            responderErro(response, HttpStatus.PAYLOAD_TOO_LARGE, "Corpo grande demais para requisicao idempotente");
+            return;
+        }
+        byte[] corpo = request.getInputStream().readNBytes(maxCorpoBytes + 1);
+        if (corpo.length > maxCorpoBytes) {
+            responderErro(response, HttpStatus.PAYLOAD_TOO_LARGE, "Corpo grande demais para requisicao idempotente");
+            return;
+        }
+        String chave = identificar(request) + ":" + chaveCliente;
+        String impressao = impressaoDigital(request, corpo);
+
+        removerExpiradas();
+        Entrada nova = new Entrada(impressao, System.nanoTime() + TimeUnit.MINUTES.toNanos(ttlMinutos));
+        Entrada existente = entradas.putIfAbsent(chave, nova);
+        if (existente != null) {
+            repetir(existente, impressao, response);
+            return;
+        }
+        ordem.add(chave);
+
+        ContentCachingResponseWrapper resposta = new ContentCachingResponseWrapper(response);
+        Resposta guardada = null;
+        try {
+            filterChain.doFilter(new RequisicaoComCorpo(request, corpo), resposta);
+            guardada = new Resposta(resposta.getStatus(), resposta.getContentType(), resposta.getContentAsByteArray());
+        } finally {
+            if (guardada == null || !guardavel(guardada.status())) {
+                entradas.remove(chave, nova);
+            }
+            if (guardada != null) {
+                nova.resposta.complete(guardada);
+            } else {
+                nova.resposta.completeExceptionally(new IllegalStateException("Requisicao original falhou"));
+            }
+            resposta.copyBodyToResponse();
+        }
+    }
+
+    private void repetir(Entrada existente, String impressao, HttpServletResponse response) throws IOException {
+        if (!existente.impressao.equals(impressao)) {
+            responderErro(response, HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key ja usada em outra requisicao");
+            return;
+        }
+        Resposta original;
+        try {
+            original = existente.resposta.get(esperaMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            responderErro(response, HttpStatus.CONFLICT, "Requisicao original ainda em processamento ou com falha, tente novamente");
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            responderErro(response, HttpStatus.CONFLICT, "Requisicao original ainda em processamento, tente novamente");
+            return;
+        }
+        metricasService.incrementar("idempotencia.repeticoes");
+        response.setStatus(original.status());
+        if (original.contentType() != null) {
+            response.setContentType(original.contentType());
+        }
+        response.setHeader("Idempotent-Replayed", "true");
+        response.getOutputStream().write(original.corpo());
+    }
+
+    private static boolean guardavel(int status) {
+        return (status >= 200 && status < 300) || ERROS_DETERMINISTICOS.contains(status);
+    }
+
+    // Descarta as entradas vencidas e, acima do limite, as mais antigas. Entradas
+    // em andamento voltam para o fim da fila: descarta-las deixaria uma repeticao
+    // simultanea executar de novo.
+    private void removerExpiradas() {
+        long agora = System.nanoTime();
+        int adiadas = 0;
+        String chave;
+        while ((chave = ordem.peek()) != null) {
+            Entrada entrada = entradas.get(chave);
+            boolean vencida = entrada == null || entrada.expiraEm - agora <= 0;
+            if (!vencida && entradas.size() < maxEntradas) {
+                return;
+            }
+            if (!ordem.remove(chave)) {
+                continue;
+            }
+            if (entrada != null && !entrada.resposta.isDone()) {
+                ordem.add(chave);
+                if (++adiadas >= entradas.size()) {
+                    return;
+                }
+                continue;
+            }
+            if (entrada != null) {
+                entradas.remove(chave, entrada);
+            }
+        }
+    }
+
+    private static String impressaoDigital(HttpServletRequest request, byte[] corpo) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getServletPath().getBytes(StandardCharsets.UTF_8));
+            if (request.getQueryString() != null) {
+                digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update(corpo);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String identificar(HttpServletRequest request) {
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacao != null && autenticacao.getPrincipal() instanceof UsuarioDetails detalhes) {
+            return detalhes.getUsuario().getId();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static void responderErro(HttpServletResponse response, HttpStatus status, String mensagem) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"" + mensagem + "\"}");
+    }
+
+    private record Resposta(int status, String contentType, byte[] corpo) {}
+
+    private static final class Entrada {
+        private final String impressao;
+        private final long expiraEm;
+        private final CompletableFuture<Resposta> resposta = new CompletableFuture<>();
+
+        Entrada(String impressao, long expiraEm) {
+            this.impressao = impressao;
+            this.expiraEm = expiraEm;
+        }
+    }
+
+    // O corpo ja foi lido para a impressao digital; o controller le a copia.
+    private static final class RequisicaoComCorpo extends HttpServletRequestWrapper {
+        private final byte[] corpo;
+
+        RequisicaoComCorpo(HttpServletRequest request, byte[] corpo) {
+            super(request);
+            this.corpo = corpo;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream entrada = new ByteArrayInputStream(corpo);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return entrada.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // O corpo ja esta todo no buffer: disponivel e lido de uma vez.
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return entrada.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return entrada.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -2,32 +2,49 @@ package com.metalSpring.security;
 
 import com.metalSpring.model.entity.Usuario;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class JwtService {
 
     private final String secret;
     private final long expirationMs;
+    private final int cacheMaxEntradas;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+
+    // Tokens ja verificados, pelo hash SHA-256 do token; cada entrada vale ate a expiracao do proprio token.
+    private final Map<String, TokenVerificado> verificados = new ConcurrentHashMap<>();
+
+    public record TokenVerificado(String email, String usuarioId, long expiraEm) {}
 
     public JwtService(
             @Value("${app.jwt.secret}") String secret,
-            @Value("${app.jwt.expiration-ms:86400000}") long expirationMs
+            @Value("${app.jwt.expiration-ms:86400000}") long expirationMs,
+            @Value("${app.jwt.cache-max-entradas:10000}") int cacheMaxEntradas
     ) {
         this.secret = secret;
         this.expirationMs = expirationMs;
+        this.cacheMaxEntradas = cacheMaxEntradas;
+        this.signingKey = getSigningKey();
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
     }
 
     public String generateToken(Usuario usuario) {
@@ -44,34 +61,64 @@ public class JwtService {
                 .subject(usuario.getEmail())
                 .issuedAt(now)
                 .expiration(expiresAt)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    /**
+     * Verifica assinatura e expiracao do token e devolve os dados do usuario.
+     * O resultado fica em cache ate o token expirar, entao requisicoes seguintes
+     * com o mesmo token nao refazem o HMAC nem o parse. Lanca JwtException se o
+     * token for invalido ou estiver expirado.
+     */
+    public TokenVerificado verificar(String token) {
+        String hash = hash(token);
+        TokenVerificado verificado = verificados.get(hash);
+        if (verificado != null && verificado.expiraEm() > System.currentTimeMillis()) {
+            return verificado;
+        }
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        verificado = new TokenVerificado(
+                claims.getSubject(),
+                claims.get("id", String.class),
+                claims.getExpiration().getTime()
+        );
+        if (verificados.size() >= cacheMaxEntradas) {
+            limparVerificados();
+            if (verificados.size() >= cacheMaxEntradas) {
+                verificados.clear();
+            }
+        }
+        verificados.put(hash, verificado);
+        return verificado;
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        String username = extractUsername(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+    public String extractUsername(String token) {
+        return verificar(token).email();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public boolean isTokenValid(String token, UserDetails userDetails) {
+        try {
+            return verificar(token).email().equals(userDetails.getUsername());
+        } catch (RuntimeException e) {
+            return false;
+        }
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    @Scheduled(fixedDelayString = "${app.jwt.cache-limpeza-ms:60000}")
+    public void limparVerificados() {
+        long agora = System.currentTimeMillis();
+        verificados.values().removeIf(verificado -> verificado.expiraEm() <= agora);
     }
 
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claimsResolver.apply(claims);
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     private SecretKey getSigningKey() {
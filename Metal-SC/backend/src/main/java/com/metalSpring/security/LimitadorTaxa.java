@@ -0,0 +1,126 @@
+package com.metalSpring.security;
+
+import com.metalSpring.services.MetricasService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Baldes de fichas (token bucket) por limite e usuario.
+ *
+ * Os baldes ficam distribuidos em faixas, cada uma com seu proprio lock, para
+ * que usuarios diferentes raramente disputem o mesmo lock. Cada balde comeca
+ * cheio, repoe fichas continuamente na taxa configurada e e descartado depois
+ * de ficar cheio e ocioso, mantendo a memoria proporcional aos usuarios ativos.
+ */
+@Component
+public class LimitadorTaxa {
+
+    private static final int FAIXAS = 64;
+    private static final long NANOS_POR_MINUTO = TimeUnit.MINUTES.toNanos(1);
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MetricasService metricasService;
+
+    private final Faixa[] faixas = new Faixa[FAIXAS];
+    private final Map<String, Configuracao> configuracoes = new ConcurrentHashMap<>();
+
+    public LimitadorTaxa() {
+        for (int i = 0; i < FAIXAS; i++) {
+            faixas[i] = new Faixa();
+        }
+    }
+
+    /**
+     * Consome uma ficha do balde do usuario. Retorna 0 se a chamada foi aceita ou,
+     * se o limite foi atingido, quantos nanossegundos faltam para a proxima ficha.
+     */
+    public long consumir(String limite, String usuarioId) {
+        Configuracao configuracao = configuracoes.computeIfAbsent(limite, this::carregarConfiguracao);
+        String chave = limite + ":" + usuarioId;
+        Faixa faixa = faixas[(chave.hashCode() & 0x7fffffff) % FAIXAS];
+        long agora = System.nanoTime();
+
+        faixa.lock.lock();
+        try {
+            Balde balde = faixa.baldes.computeIfAbsent(chave, c -> new Balde(configuracao, agora));
+            balde.repor(agora);
+            if (balde.fichas >= 1) {
+                balde.fichas -= 1;
+                return 0;
+            }
+            metricasService.incrementar("limite." + limite + ".recusadas");
+            return (long) Math.ceil((1 - balde.fichas) * configuracao.nanosPorFicha());
+        } finally {
+            faixa.lock.unlock();
+        }
+    }
+
+    // Descarta baldes que ja se encheram de novo: recria-los cheios da o mesmo resultado.
+    @Scheduled(fixedDelayString = "${app.limite.limpeza-ms:60000}")
+    public void limpar() {
+        long agora = System.nanoTime();
+        for (Faixa faixa : faixas) {
+            faixa.lock.lock();
+            try {
+                Iterator<Balde> baldes = faixa.baldes.values().iterator();
+                while (baldes.hasNext()) {
+                    Balde balde = baldes.next();
+                    balde.repor(agora);
+                    if (balde.fichas >= balde.configuracao.capacidade()) {
+                        baldes.remove();
+                    }
+                }
+            } finally {
+                faixa.lock.unlock();
+            }
+        }
+    }
+
+    private Configuracao carregarConfiguracao(String limite) {
+        int capacidade = environment.getProperty("app.limite." + limite + ".capacidade", Integer.class, 10);
+        int porMinuto = environment.getProperty("app.limite." + limite + ".por-minuto", Integer.class, 30);
+        if (capacidade <= 0 || porMinuto <= 0) {
+            throw new IllegalStateException("Limite de taxa invalido: " + limite);
+        }
+        return new Configuracao(capacidade, (double) NANOS_POR_MINUTO / porMinuto);
+    }
+
+    private record Configuracao(int capacidade, double nanosPorFicha) {}
+
+    private static final class Faixa {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, Balde> baldes = new HashMap<>();
+    }
+
+    private static final class Balde {
+        private final Configuracao configuracao;
+        private double fichas;
+        private long ultimaReposicao;
+
+        Balde(Configuracao configuracao, long agora) {
+            this.configuracao = configuracao;
+            this.fichas = configuracao.capacidade();
+            this.ultimaReposicao = agora;
+        }
+
+        void repor(long agora) {
+            long decorrido = agora - ultimaReposicao;
+            if (decorrido > 0) {
+                fichas = Math.min(configuracao.capacidade(), fichas + decorrido / configuracao.nanosPorFicha());
+                ultimaReposicao = agora;
+            }
+        }
+    }
+}
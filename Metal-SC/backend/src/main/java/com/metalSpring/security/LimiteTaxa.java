@@ -0,0 +1,17 @@
+package com.metalSpring.security;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limita a frequencia de chamadas do endpoint por usuario autenticado.
+ * O valor nomeia o limite em app.limite.&lt;nome&gt;.capacidade e
+ * app.limite.&lt;nome&gt;.por-minuto.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface LimiteTaxa {
+    String value();
+}
@@ -0,0 +1,56 @@
+package com.metalSpring.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aplica os limites {@link LimiteTaxa} antes do controller, respondendo 429
+ * com Retry-After quando o usuario esgota o balde.
+ */
+@Component
+public class LimiteTaxaInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private LimitadorTaxa limitadorTaxa;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!(handler instanceof HandlerMethod metodo)) {
+            return true;
+        }
+        LimiteTaxa limite = metodo.getMethodAnnotation(LimiteTaxa.class);
+        if (limite == null) {
+            return true;
+        }
+
+        long esperaNanos = limitadorTaxa.consumir(limite.value(), identificar(request));
+        if (esperaNanos == 0) {
+            return true;
+        }
+        long segundos = Math.max(1, (long) Math.ceil(esperaNanos / (double) TimeUnit.SECONDS.toNanos(1)));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(segundos));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"Muitas requisicoes, tente novamente em " + segundos + " segundos\"}");
+        return false;
+    }
+
+    // Usuario do JWT; sem autenticacao (nao deveria ocorrer nestes endpoints) cai no IP.
+    private static String identificar(HttpServletRequest request) {
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacao != null && autenticacao.getPrincipal() instanceof UsuarioDetails detalhes) {
+            return detalhes.getUsuario().getId();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
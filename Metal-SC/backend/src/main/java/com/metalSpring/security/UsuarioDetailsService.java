@@ -2,23 +2,63 @@ package com.metalSpring.security;
 
 import com.metalSpring.model.entity.Usuario;
 import com.metalSpring.repository.UsuarioRepository;
+import com.metalSpring.util.TransacaoUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carrega o usuario autenticado pelo email.
+ *
+ * O resultado fica em cache por alguns segundos para que o JwtFilter nao
+ * consulte o banco a cada requisicao. Alteracoes que mudam o acesso do
+ * usuario (bloqueio, desbloqueio, remocao) chamam invalidar apos o commit.
+ */
 @Service
 public class UsuarioDetailsService implements UserDetailsService {
 
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Value("${app.seguranca.usuario-cache-segundos:30}")
+    private long cacheSegundos;
+
+    private final Map<String, Entrada> porEmail = new ConcurrentHashMap<>();
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        long agora = System.nanoTime();
+        Entrada entrada = porEmail.get(username);
+        if (entrada != null && entrada.expiraEm() - agora > 0) {
+            return entrada.detalhes();
+        }
+
         Usuario usuario = usuarioRepository.findByEmail(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuario nao encontrado: " + username));
 
-        return new UsuarioDetails(usuario);
+        UsuarioDetails detalhes = new UsuarioDetails(usuario);
+        porEmail.put(username, new Entrada(detalhes, agora + TimeUnit.SECONDS.toNanos(cacheSegundos)));
+        return detalhes;
     }
+
+    public void invalidar(String usuarioId) {
+        TransacaoUtils.aposCommit(() -> porEmail.values()
+                .removeIf(entrada -> entrada.detalhes().getUsuario().getId().equals(usuarioId)));
+    }
+
+    @Scheduled(fixedDelayString = "${app.seguranca.usuario-cache-limpeza-ms:60000}")
+    public void limpar() {
+        long agora = System.nanoTime();
+        porEmail.values().removeIf(entrada -> entrada.expiraEm() - agora <= 0);
+    }
+
+    private record Entrada(UsuarioDetails detalhes, long expiraEm) {}
 }
@@ -12,10 +12,13 @@ import com.metalSpring.repository.PecaRepository;
 import com.metalSpring.repository.PedidoRepository;
 import com.metalSpring.repository.RevendedorRepository;
 import com.metalSpring.repository.UsuarioRepository;
+import com.metalSpring.security.UsuarioDetailsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 import java.util.HashMap;
@@ -38,6 +41,17 @@ public class AdministradorService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UsuarioDetailsService usuarioDetailsService;
+
+    @Autowired
+    private TaxasService taxasService;
+    @Autowired
+    private IndicePecasService indicePecasService;
+
+    @Autowired
+    private FacetasPecasService facetasPecasService;
+
     
     public List<Administrador> listarTodos() {
         return adminRepository.findAll();
@@ -66,6 +80,7 @@ public class AdministradorService {
 
         usuario.setAtivo(false);
         usuarioRepository.save(usuario);
+        usuarioDetailsService.invalidar(usuarioId);
     }
 
     public void desbloquearUsuario(String usuarioId) {
@@ -73,6 +88,7 @@ public class AdministradorService {
                 .orElseThrow(() -> new RuntimeException("Usuario nao encontrado"));
         usuario.setAtivo(true);
         usuarioRepository.save(usuario);
+        usuarioDetailsService.invalidar(usuarioId);
     }
 
     public void removerUsuario(String usuarioId, String motivo) {
@@ -85,6 +101,7 @@ public class AdministradorService {
 
         usuario.setAtivo(false);
         usuarioRepository.save(usuario);
+        usuarioDetailsService.invalidar(usuarioId);
     }
 
     public void removerRevendedor(String revendedorId, String motivo) {
@@ -97,6 +114,7 @@ public class AdministradorService {
 
         revendedor.setAtivo(false);
         revendedorRepository.save(revendedor);
+        usuarioDetailsService.invalidar(revendedorId);
     }
 
     public void removerPeca(String pecaId, String motivo) {
@@ -105,6 +123,8 @@ public class AdministradorService {
 
         peca.setDisponivel(false);
         pecaRepository.save(peca);
+        indicePecasService.remover(pecaId);
+        facetasPecasService.remover(pecaId);
     }
 
     public void aprovarRevendedor(String revendedorId) {
@@ -130,20 +150,13 @@ public class AdministradorService {
     }
 
     public void baixarTaxas(String revendedorId, Double valor) {
-        Revendedor revendedor = revendedorRepository.findById(revendedorId)
-                .orElseThrow(() -> new RuntimeException("Revendedor nao encontrado"));
-
-        double saldoAtual = revendedor.getSaldoTaxas() != null ? revendedor.getSaldoTaxas() : 0.0;
-        double novoSaldo;
-        if (valor == null) {
-            novoSaldo = 0.0;
-        } else {
-            novoSaldo = Math.max(0.0, saldoAtual - valor);
+        if (!revendedorRepository.existsById(revendedorId)) {
+            throw new RuntimeException("Revendedor nao encontrado");
         }
-        revendedor.setSaldoTaxas(novoSaldo);
-        revendedorRepository.save(revendedor);
+        taxasService.baixar(revendedorId, valor != null ? BigDecimal.valueOf(valor) : null);
     }
 
+    @Transactional
     public void ativarPremium(String revendedorId, int dias) {
         Revendedor revendedor = revendedorRepository.findById(revendedorId)
                 .orElseThrow(() -> new RuntimeException("Revendedor nao encontrado"));
@@ -155,8 +168,10 @@ public class AdministradorService {
         revendedor.setPremiumAtivo(true);
         revendedor.setPremiumAte(LocalDateTime.now().plusDays(dias));
         revendedorRepository.save(revendedor);
+        pecaRepository.definirVendedorPremium(revendedorId, true);
     }
 
+    @Transactional
     public void desativarPremium(String revendedorId) {
         Revendedor revendedor = revendedorRepository.findById(revendedorId)
                 .orElseThrow(() -> new RuntimeException("Revendedor nao encontrado"));
@@ -164,6 +179,7 @@ public class AdministradorService {
         revendedor.setPremiumAtivo(false);
         revendedor.setPremiumAte(null);
         revendedorRepository.save(revendedor);
+        pecaRepository.definirVendedorPremium(revendedorId, false);
     }
 
     
@@ -0,0 +1,65 @@
+package com.metalSpring.services;
+
+import com.metalSpring.model.entity.AlertaModeracao;
+import com.metalSpring.repository.AlertaModeracaoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ponto unico de gravacao dos alertas de moderacao.
+ *
+ * Toda criacao de alerta ou soma de ocorrencias passa por aqui, que ajusta na
+ * mesma transacao o contador de infracoes do usuario e as estatisticas em
+ * memoria; assim os contadores nao dependem de cada chamador lembrar de
+ * atualiza-los. Alertas nunca sao apagados (ao excluir a conversa eles so sao
+ * desvinculados dela), entao os contadores so crescem.
+ */
+@Service
+public class AlertasModeracaoService {
+
+    @Autowired
+    private AlertaModeracaoRepository alertaRepository;
+
+    @Autowired
+    private InfracoesService infracoesService;
+
+    @Autowired
+    private EstatisticasModeracaoService estatisticasModeracaoService;
+
+    @Transactional
+    public AlertaModeracao criar(AlertaModeracao alerta) {
+        return criar(List.of(alerta)).get(0);
+    }
+
+    @Transactional
+    public List<AlertaModeracao> criar(List<AlertaModeracao> alertas) {
+        List<AlertaModeracao> salvos = alertaRepository.saveAll(alertas);
+        Map<String, Long> porUsuario = new HashMap<>();
+        for (AlertaModeracao alerta : salvos) {
+            porUsuario.merge(alerta.getUsuario().getId(), (long) alerta.getOcorrencias(), Long::sum);
+            estatisticasModeracaoService.registrarAlerta(alerta.getNivelRisco(), alerta.getTipoInfracao(),
+                    alerta.getDataHora(), alerta.getOcorrencias());
+        }
+        porUsuario.forEach(infracoesService::registrar);
+        return salvos;
+    }
+
+    /**
+     * Soma ocorrencias de uma infracao repetida ao alerta ja aberto.
+     */
+    @Transactional
+    public void somarOcorrencias(String alertaId, String usuarioId, String tipoInfracao, int quantidade,
+                                 LocalDateTime agora) {
+        if (alertaRepository.somarOcorrencias(alertaId, quantidade, agora) == 0) {
+            return;
+        }
+        infracoesService.registrar(usuarioId, quantidade);
+        estatisticasModeracaoService.registrarOcorrencias(tipoInfracao, agora, quantidade);
+    }
+}
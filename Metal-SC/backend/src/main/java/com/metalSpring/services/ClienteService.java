@@ -3,6 +3,7 @@ package com.metalSpring.services;
 import com.metalSpring.model.entity.Cliente;
 import com.metalSpring.model.enums.UsuarioTipo;
 import com.metalSpring.repository.ClienteRepository;
+import com.metalSpring.security.UsuarioDetailsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -21,6 +22,9 @@ public class ClienteService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UsuarioDetailsService usuarioDetailsService;
+
     public List<Cliente> listarTodos() {
         return clienteRepository.findAll();
     }
@@ -82,6 +86,7 @@ public class ClienteService {
             throw new RuntimeException("Cliente não encontrado");
         }
         clienteRepository.deleteById(id);
+        usuarioDetailsService.invalidar(id);
     }
 
     public List<Cliente> buscarPorNome(String nome) {
@@ -109,5 +114,6 @@ public class ClienteService {
         
         cliente.setSenhaHash(passwordEncoder.encode(novaSenha));
         clienteRepository.save(cliente);
+        usuarioDetailsService.invalidar(id);
     }
 }
\ No newline at end of file
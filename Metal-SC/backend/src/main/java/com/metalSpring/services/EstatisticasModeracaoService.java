@@ -0,0 +1,251 @@
+package com.metalSpring.services;
+
+import com.metalSpring.model.enums.AlertaModeracaoStatus;
+import com.metalSpring.model.enums.NivelRiscoModeracao;
+import com.metalSpring.repository.AlertaModeracaoRepository;
+import com.metalSpring.util.TransacaoUtils;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contagens de alertas de moderacao por status e risco, e de ocorrencias
+ * por tipo de infracao e hora, mantidas em memoria.
+ *
+ * Os contadores sao carregados do banco na subida e depois ajustados pelo
+ * proprio fluxo de moderacao apos cada commit, de modo que o painel e o
+ * stream de estatisticas nao consultam o MySQL. Ocorrencias agrupadas em um
+ * alerta existente entram no tipo e na hora em que aconteceram; na subida,
+ * as ocorrencias de cada alerta sao atribuidas a hora do primeiro registro.
+ * As horas ficam em um anel com as ultimas {@value #HORAS} horas.
+ *
+ * O stream escreve para cada assinante em uma thread virtual propria, fora
+ * do agendador compartilhado; um assinante cujo envio anterior ainda nao
+ * terminou quando chega o proximo e desconectado.
+ */
+@Service
+public class EstatisticasModeracaoService {
+
+    private static final Logger log = LoggerFactory.getLogger(EstatisticasModeracaoService.class);
+
+    private static final int HORAS = 48;
+    private static final int HORAS_EXIBIDAS = 24;
+
+    @Autowired
+    private AlertaModeracaoRepository alertaRepository;
+
+    @Autowired
+    private ModeracaoService moderacaoService;
+
+    private final EnumMap<AlertaModeracaoStatus, LongAdder> porStatus = new EnumMap<>(AlertaModeracaoStatus.class);
+    private final EnumMap<NivelRiscoModeracao, LongAdder> porRisco = new EnumMap<>(NivelRiscoModeracao.class);
+    private final Map<String, LongAdder> porTipo = new ConcurrentHashMap<>();
+
+    // Anel de horas: cada posicao guarda a hora (desde a epoca) e o contador dela.
+    private final AtomicReferenceArray<Balde> baldes = new AtomicReferenceArray<>(HORAS);
+
+    // Assinante e o seu ultimo envio.
+    private final Map<SseEmitter, Future<?>> assinantes = new ConcurrentHashMap<>();
+    private final ExecutorService envios = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${app.moderacao.estatisticas-timeout-ms:1800000}")
+    private long timeoutMs;
+
+    public EstatisticasModeracaoService() {
+        for (AlertaModeracaoStatus status : AlertaModeracaoStatus.values()) {
+            porStatus.put(status, new LongAdder());
+        }
+        for (NivelRiscoModeracao risco : NivelRiscoModeracao.values()) {
+            porRisco.put(risco, new LongAdder());
+        }
+        for (int i = 0; i < HORAS; i++) {
+            baldes.set(i, new Balde(-1, new LongAdder()));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        long total = 0;
+        for (Object[] linha : alertaRepository.contarPorStatusRiscoETipo()) {
+            long quantidade = (Long) linha[3];
+            porStatus.get((AlertaModeracaoStatus) linha[0]).add(quantidade);
+            porRisco.get((NivelRiscoModeracao) linha[1]).add(quantidade);
+            porTipo.computeIfAbsent((String) linha[2], t -> new LongAdder()).add(((Number) linha[4]).longValue());
+            total += quantidade;
+        }
+        LocalDateTime desde = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(HORAS - 1);
+        for (Object[] linha : alertaRepository.contarPorHora(desde)) {
+            LocalDateTime hora = LocalDateTime.of(
+                    ((Number) linha[0]).intValue(), ((Number) linha[1]).intValue(), ((Number) linha[2]).intValue(),
+                    ((Number) linha[3]).intValue(), 0);
+            somarHora(hora, ((Number) linha[4]).longValue());
+        }
+        log.info("Estatisticas de moderacao carregadas: {} alertas", total);
+    }
+
+    /**
+     * Conta um alerta novo (sempre pendente) e as suas ocorrencias apos o
+     * commit da transacao corrente.
+     */
+    public void registrarAlerta(NivelRiscoModeracao risco, String tipoInfracao, LocalDateTime dataHora, long ocorrencias) {
+        TransacaoUtils.aposCommit(() -> {
+            porStatus.get(AlertaModeracaoStatus.PENDENTE).increment();
+            porRisco.get(risco).increment();
+            porTipo.computeIfAbsent(tipoInfracao, t -> new LongAdder()).add(ocorrencias);
+            somarHora(dataHora, ocorrencias);
+        });
+    }
+
+    /**
+     * Conta ocorrencias somadas a um alerta ja existente apos o commit.
+     */
+    public void registrarOcorrencias(String tipoInfracao, LocalDateTime dataHora, long ocorrencias) {
+        TransacaoUtils.aposCommit(() -> {
+            porTipo.computeIfAbsent(tipoInfracao, t -> new LongAdder()).add(ocorrencias);
+            somarHora(dataHora, ocorrencias);
+        });
+    }
+
+    public void registrarMudancaStatus(AlertaModeracaoStatus anterior, AlertaModeracaoStatus novo) {
+        if (anterior == novo) {
+            return;
+        }
+        TransacaoUtils.aposCommit(() -> {
+            porStatus.get(anterior).decrement();
+            porStatus.get(novo).increment();
+        });
+    }
+
+    public Map<String, Object> resumo() {
+        Map<String, Long> status = new LinkedHashMap<>();
+        long total = 0;
+        for (Map.Entry<AlertaModeracaoStatus, LongAdder> entry : porStatus.entrySet()) {
+            long quantidade = entry.getValue().sum();
+            status.put(entry.getKey().name(), quantidade);
+            total += quantidade;
+        }
+        Map<String, Long> risco = new LinkedHashMap<>();
+        porRisco.forEach((nivel, contador) -> risco.put(nivel.name(), contador.sum()));
+        Map<String, Long> tipo = new TreeMap<>();
+        porTipo.forEach((nome, contador) -> tipo.put(nome, contador.sum()));
+
+        Map<String, Object> resumo = new LinkedHashMap<>();
+        resumo.put("total", total);
+        resumo.put("pendentes", status.get(AlertaModeracaoStatus.PENDENTE.name()));
+        resumo.put("analisados", status.get(AlertaModeracaoStatus.ANALISADO.name()));
+        resumo.put("resolvidos", status.get(AlertaModeracaoStatus.RESOLVIDO.name()));
+        resumo.put("porStatus", status);
+        resumo.put("porRisco", risco);
+        resumo.put("porTipo", tipo);
+        resumo.put("porRegra", moderacaoService.ocorrenciasPorRegra());
+        resumo.put("porHora", porHora());
+        return resumo;
+    }
+
+    public SseEmitter assinar() {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        assinantes.put(emitter, CompletableFuture.completedFuture(null));
+        emitter.onCompletion(() -> assinantes.remove(emitter));
+        emitter.onTimeout(() -> assinantes.remove(emitter));
+        emitter.onError(erro -> assinantes.remove(emitter));
+        enviar(emitter, resumo());
+        return emitter;
+    }
+
+    @Scheduled(fixedRateString = "${app.moderacao.estatisticas-stream-ms:5000}")
+    public void transmitir() {
+        if (assinantes.isEmpty()) {
+            return;
+        }
+        Map<String, Object> resumo = resumo();
+        for (Map.Entry<SseEmitter, Future<?>> assinante : assinantes.entrySet()) {
+            SseEmitter emitter = assinante.getKey();
+            Future<?> anterior = assinante.getValue();
+            if (!anterior.isDone()) {
+                // Preso no envio anterior por um intervalo inteiro: o cliente parou de ler.
+                log.debug("Assinante de estatisticas sem leitura, desconectando");
+                anterior.cancel(true);
+                assinantes.remove(emitter);
+                emitter.complete();
+                continue;
+            }
+            assinantes.replace(emitter, anterior, envios.submit(() -> enviar(emitter, resumo)));
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        envios.shutdownNow();
+    }
+
+    private void enviar(SseEmitter emitter, Map<String, Object> resumo) {
+        try {
+            emitter.send(SseEmitter.event().name("estatisticas").data(resumo));
+        } catch (IOException | IllegalStateException e) {
+            assinantes.remove(emitter);
+            emitter.completeWithError(e);
+        }
+    }
+
+    private List<Map<String, Object>> porHora() {
+        long atual = horaEpoca(LocalDateTime.now());
+        List<Map<String, Object>> serie = new ArrayList<>(HORAS_EXIBIDAS);
+        for (long hora = atual - HORAS_EXIBIDAS + 1; hora <= atual; hora++) {
+            Balde balde = baldes.get((int) (hora % HORAS));
+            long quantidade = balde.hora() == hora ? balde.contador().sum() : 0;
+            serie.add(Map.of(
+                    "hora", LocalDateTime.ofEpochSecond(hora * 3600, 0, ZoneOffset.UTC),
+                    "quantidade", quantidade));
+        }
+        return serie;
+    }
+
+    private void somarHora(LocalDateTime dataHora, long quantidade) {
+        long hora = horaEpoca(dataHora);
+        int indice = (int) (hora % HORAS);
+        while (true) {
+            Balde balde = baldes.get(indice);
+            if (balde.hora() == hora) {
+                balde.contador().add(quantidade);
+                return;
+            }
+            if (balde.hora() > hora) {
+                return;
+            }
+            // A hora nova entra com um contador proprio ja publicado; somas no balde antigo nao se perdem.
+            baldes.compareAndSet(indice, balde, new Balde(hora, new LongAdder()));
+        }
+    }
+
+    private record Balde(long hora, LongAdder contador) {}
+
+    // Horas desde a epoca, tratando a data local como UTC apenas para numerar os baldes.
+    private static long horaEpoca(LocalDateTime dataHora) {
+        return dataHora.toEpochSecond(ZoneOffset.UTC) / 3600;
+    }
+}
@@ -0,0 +1,266 @@
+package com.metalSpring.services;
+
+import com.metalSpring.model.entity.ItemPedido;
+import com.metalSpring.model.entity.Pedido;
+import com.metalSpring.model.entity.ReservaEstoque;
+import com.metalSpring.model.enums.ReservaEstoqueStatus;
+import com.metalSpring.repository.PecaRepository;
+import com.metalSpring.repository.ReservaEstoqueRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * Movimentacao de estoque das pecas e reservas dos pedidos em negociacao.
+ *
+ * O estoque nunca e lido, alterado em Java e salvo: toda baixa e um UPDATE
+ * condicional (estoque >= quantidade) e toda devolucao um incremento no
+ * banco, entao compradores simultaneos da ultima unidade nao vendem alem do
+ * estoque nem perdem atualizacoes. Itens adicionados a um pedido reservam as
+ * unidades na hora; a reserva e devolvida se o item sai, se o pedido e
+ * cancelado ou se ela expira, e e confirmada quando o pagamento e confirmado.
+ */
+@Service
+public class EstoqueService {
+
+    private static final Logger log = LoggerFactory.getLogger(EstoqueService.class);
+
+    @Autowired
+    private PecaRepository pecaRepository;
+
+    @Autowired
+    private ReservaEstoqueRepository reservaRepository;
+
+    @Autowired
+    private MetricasService metricasService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.estoque.reserva-minutos:1440}")
+    private long reservaMinutos;
+
+    @Value("${app.estoque.expiracao-lote:100}")
+    private int loteExpiracao;
+
+    private TransactionTemplate transacao;
+
+    @PostConstruct
+    public void iniciar() {
+        transacao = new TransactionTemplate(transactionManager);
+    }
+
+    @Transactional
+    public ReservaEstoque reservar(String pedidoId, String pecaId, int quantidade) {
+        if (quantidade <= 0) {
+            throw new RuntimeException("Quantidade deve ser maior que zero");
+        }
+        if (pecaRepository.baixarEstoque(pecaId, quantidade) == 0) {
+            metricasService.incrementar("estoque.reservas.recusadas");
+            throw new RuntimeException("Estoque insuficiente para a peca: " + pecaId);
+        }
+        metricasService.incrementar("estoque.reservas");
+        return reservaRepository.save(new ReservaEstoque(pedidoId, pecaId, quantidade, expiracao()));
+    }
+
+    /**
+     * Reserva (diferenca positiva) ou devolve (negativa) unidades da peca no pedido.
+     */
+    @Transactional
+    public void ajustar(String pedidoId, String pecaId, int diferenca) {
+        if (diferenca > 0) {
+            reservar(pedidoId, pecaId, diferenca);
+        } else if (diferenca < 0) {
+            liberar(pedidoId, pecaId, -diferenca);
+        }
+    }
+
+    /**
+     * Devolve ate quantidade unidades reservadas da peca no pedido, das reservas mais novas para as mais antigas.
+     */
+    @Transactional
+    public void liberar(String pedidoId, String pecaId, int quantidade) {
+        int restante = quantidade;
+        for (Object[] reserva : reservaRepository.findAtivasPorPedido(pedidoId)) {
+            if (restante <= 0) {
+                break;
+            }
+            if (!pecaId.equals(reserva[1])) {
+                continue;
+            }
+            String id = (String) reserva[0];
+            int reservada = (Integer) reserva[2];
+            if (reservada <= restante) {
+                if (reservaRepository.encerrar(id, ReservaEstoqueStatus.LIBERADA) == 1) {
+                    pecaRepository.devolverEstoque(pecaId, reservada);
+                    restante -= reservada;
+                }
+            } else if (reservaRepository.reduzir(id, restante) == 1) {
+                pecaRepository.devolverEstoque(pecaId, restante);
+                restante = 0;
+            }
+        }
+    }
+
+    @Transactional
+    public void liberarPedido(String pedidoId) {
+        for (Object[] reserva : reservaRepository.findAtivasPorPedido(pedidoId)) {
+            if (reservaRepository.encerrar((String) reserva[0], ReservaEstoqueStatus.LIBERADA) == 1) {
+                pecaRepository.devolverEstoque((String) reserva[1], (Integer) reserva[2]);
+            }
+        }
+    }
+
+    /**
+     * Encerra as reservas do pedido como confirmadas e acerta a diferenca para
+     * os itens do pedido: baixa o que faltar (reservas expiradas ou itens sem
+     * reserva) e devolve o que sobrar. Falha sem alterar nada se faltar estoque.
+     *
+     * O numero de comandos nao depende da quantidade de itens: um UPDATE
+     * confirma as reservas, uma consulta soma o que foi confirmado e cada
+     * sentido do acerto (baixa e devolucao) e um unico UPDATE com CASE.
+     */
+    @Transactional
+    public void confirmarPedido(Pedido pedido) {
+        // Ordenado por id para que pedidos concorrentes travem as linhas de pecas na mesma ordem.
+        Map<String, Integer> diferencas = new TreeMap<>();
+        for (ItemPedido item : pedido.getItens()) {
+            diferencas.merge(item.getPeca().getId(), item.getQuantidade(), Integer::sum);
+        }
+
+        reservaRepository.confirmarAtivas(pedido.getId());
+        for (Object[] linha : reservaRepository.somarConfirmadasPorPeca(pedido.getId())) {
+            diferencas.merge((String) linha[0], -((Number) linha[1]).intValue(), Integer::sum);
+        }
+
+        Map<String, Integer> faltando = new TreeMap<>();
+        Map<String, Integer> sobrando = new TreeMap<>();
+        diferencas.forEach((pecaId, diferenca) -> {
+            if (diferenca > 0) {
+                faltando.put(pecaId, diferenca);
+            } else if (diferenca < 0) {
+                sobrando.put(pecaId, -diferenca);
+            }
+        });
+
+        if (!faltando.isEmpty() && atualizarEmLote(faltando, -1) != faltando.size()) {
+            metricasService.incrementar("estoque.reservas.recusadas");
+            throw new RuntimeException("Estoque insuficiente para as pecas: " + String.join(", ", faltando.keySet()));
+        }
+        if (!sobrando.isEmpty()) {
+            atualizarEmLote(sobrando, 1);
+        }
+    }
+
+    /**
+     * Soma (sinal 1) ou baixa (sinal -1) as quantidades de varias pecas num
+     * unico UPDATE. Na baixa, pecas sem estoque suficiente nao sao alteradas;
+     * o retorno e o numero de pecas atualizadas.
+     */
+    private int atualizarEmLote(Map<String, Integer> quantidades, int sinal) {
+        StringBuilder caso = new StringBuilder("CASE id");
+        StringJoiner ids = new StringJoiner(", ", "(", ")");
+        List<Object> parametrosCaso = new ArrayList<>();
+        quantidades.forEach((pecaId, quantidade) -> {
+            caso.append(" WHEN ? THEN ?");
+            parametrosCaso.add(pecaId);
+            parametrosCaso.add(quantidade);
+            ids.add("?");
+        });
+        caso.append(" ELSE 0 END");
+
+        List<Object> parametros = new ArrayList<>(parametrosCaso);
+        parametros.addAll(quantidades.keySet());
+        String sql = "UPDATE pecas SET estoque = estoque " + (sinal < 0 ? "-" : "+") + " " + caso
+                + " WHERE id IN " + ids;
+        if (sinal < 0) {
+            sql += " AND estoque >= " + caso;
+            parametros.addAll(parametrosCaso);
+        }
+        return jdbcTemplate.update(sql, parametros.toArray());
+    }
+
+    @Transactional
+    public void renovar(String pedidoId) {
+        reservaRepository.renovar(pedidoId, expiracao());
+    }
+
+    /**
+     * Soma (positivo) ou retira (negativo) unidades do estoque da peca, sem deixa-lo negativo.
+     */
+    @Transactional
+    public void alterarEstoque(String pecaId, int quantidade) {
+        int alteradas = quantidade < 0
+                ? pecaRepository.baixarEstoque(pecaId, -quantidade)
+                : pecaRepository.devolverEstoque(pecaId, quantidade);
+        if (alteradas == 0) {
+            if (!pecaRepository.existsById(pecaId)) {
+                throw new RuntimeException("Peca nao encontrada com ID: " + pecaId);
+            }
+            throw new RuntimeException("Estoque nao pode ser negativo");
+        }
+    }
+
+    @Transactional
+    public void definirEstoque(String pecaId, int quantidade) {
+        if (quantidade < 0) {
+            throw new RuntimeException("Estoque nao pode ser negativo");
+        }
+        if (pecaRepository.definirEstoque(pecaId, quantidade) == 0) {
+            throw new RuntimeException("Peca nao encontrada com ID: " + pecaId);
+        }
+    }
+
+    // Cada reserva vencida e devolvida na sua propria transacao.
+    @Scheduled(fixedDelayString = "${app.estoque.expiracao-ms:60000}")
+    public void expirar() {
+        int expiradas = 0;
+        List<String> ids;
+        do {
+            ids = reservaRepository.findIdsExpiradas(LocalDateTime.now(), PageRequest.of(0, loteExpiracao));
+            for (String id : ids) {
+                Boolean devolvida = transacao.execute(status -> expirarReserva(id));
+                if (Boolean.TRUE.equals(devolvida)) {
+                    expiradas++;
+                }
+            }
+        } while (ids.size() == loteExpiracao);
+
+        if (expiradas > 0) {
+            metricasService.incrementar("estoque.reservas.expiradas", expiradas);
+            log.info("{} reservas de estoque expiradas devolvidas", expiradas);
+        }
+    }
+
+    private boolean expirarReserva(String id) {
+        List<Object[]> reserva = reservaRepository.findPecaEQuantidade(id);
+        if (reserva.isEmpty() || reservaRepository.encerrar(id, ReservaEstoqueStatus.EXPIRADA) == 0) {
+            return false;
+        }
+        pecaRepository.devolverEstoque((String) reserva.get(0)[0], (Integer) reserva.get(0)[1]);
+        return true;
+    }
+
+    private LocalDateTime expiracao() {
+        return LocalDateTime.now().plusMinutes(reservaMinutos);
+    }
+}
@@ -0,0 +1,135 @@
+package com.metalSpring.services;
+
+import com.metalSpring.model.dto.EventoNegociacaoDTO;
+import com.metalSpring.util.TransacaoUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Canal Server-Sent Events das negociacoes. Cada usuario autenticado pode
+ * manter uma ou mais conexoes abertas (abas, dispositivos); os eventos de
+ * uma conversa sao entregues aos dois participantes apos o commit, sem
+ * nenhuma consulta ao banco enquanto a conexao esta ociosa.
+ *
+ * A escrita nas conexoes, inclusive o heartbeat, roda em executores de uma
+ * thread escolhidos pelo usuario: um cliente lento nao atrasa a resposta de
+ * quem publicou nem os demais jobs agendados, e os eventos de cada usuario
+ * mantem a ordem.
+ */
+@Service
+public class EventosNegociacaoService {
+
+    private static final Logger log = LoggerFactory.getLogger(EventosNegociacaoService.class);
+
+    @Value("${app.eventos.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${app.eventos.threads:4}")
+    private int quantidadeThreads;
+
+    @Autowired
+    private MetricasService metricasService;
+
+    private final Map<String, List<SseEmitter>> conexoes = new ConcurrentHashMap<>();
+    private final List<ExecutorService> executores = new ArrayList<>();
+
+    @PostConstruct
+    public void registrarMetricas() {
+        for (int i = 0; i < Math.max(1, quantidadeThreads); i++) {
+            executores.add(Executors.newSingleThreadExecutor(Thread.ofVirtual().name("eventos-" + i).factory()));
+        }
+        metricasService.registrarMedidor("eventos.conexoes", this::totalConexoes);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executores.forEach(ExecutorService::shutdown);
+    }
+
+    public SseEmitter inscrever(String usuarioId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        conexoes.computeIfAbsent(usuarioId, id -> new CopyOnWriteArrayList<>()).add(emitter);
+        emitter.onCompletion(() -> desinscrever(usuarioId, emitter));
+        emitter.onTimeout(() -> desinscrever(usuarioId, emitter));
+        emitter.onError(erro -> desinscrever(usuarioId, emitter));
+        enviar(usuarioId, emitter, SseEmitter.event().name("conectado").data(Map.of("usuarioId", usuarioId)));
+        return emitter;
+    }
+
+    /**
+     * Publica o evento para o cliente e o revendedor da conversa. Dentro de uma
+     * transacao o envio so acontece apos o commit.
+     */
+    public void publicar(String clienteId, String revendedorId, EventoNegociacaoDTO evento) {
+        TransacaoUtils.aposCommit(() -> {
+            agendar(clienteId, () -> SseEmitter.event().name(evento.getTipo()).data(evento));
+            agendar(revendedorId, () -> SseEmitter.event().name(evento.getTipo()).data(evento));
+            metricasService.incrementar("eventos.publicados");
+        });
+    }
+
+    // Mantem as conexoes vivas atraves de proxies e descobre as que cairam.
+    // O agendador so distribui os pings; quem escreve sao os executores.
+    @Scheduled(fixedRateString = "${app.eventos.heartbeat-ms:25000}")
+    public void heartbeat() {
+        for (String usuarioId : conexoes.keySet()) {
+            agendar(usuarioId, () -> SseEmitter.event().comment("ping"));
+        }
+    }
+
+    private void agendar(String usuarioId, Supplier<SseEmitter.SseEventBuilder> evento) {
+        if (usuarioId == null || !conexoes.containsKey(usuarioId)) {
+            return;
+        }
+        executores.get(Math.floorMod(usuarioId.hashCode(), executores.size()))
+                .execute(() -> entregar(usuarioId, evento));
+    }
+
+    private void entregar(String usuarioId, Supplier<SseEmitter.SseEventBuilder> evento) {
+        List<SseEmitter> emitters = conexoes.get(usuarioId);
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            enviar(usuarioId, emitter, evento.get());
+        }
+    }
+
+    private void enviar(String usuarioId, SseEmitter emitter, SseEmitter.SseEventBuilder evento) {
+        try {
+            emitter.send(evento);
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Conexao de eventos encerrada para {}: {}", usuarioId, e.getMessage());
+            desinscrever(usuarioId, emitter);
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void desinscrever(String usuarioId, SseEmitter emitter) {
+        conexoes.computeIfPresent(usuarioId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    private int totalConexoes() {
+        return conexoes.values().stream().mapToInt(List::size).sum();
+    }
+}
@@ -0,0 +1,170 @@
+package com.metalSpring.services;
+
+import com.metalSpring.model.dto.EventoPedidoDTO;
+import com.metalSpring.model.entity.EventoPedido;
+import com.metalSpring.model.enums.TipoEventoPedido;
+import com.metalSpring.repository.EventoPedidoRepository;
+import com.metalSpring.security.UsuarioDetails;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Historico de eventos dos pedidos, gravado apenas com inserts.
+ *
+ * Substitui a colecao pedido_eventos do Pedido, que o Hibernate apagava e
+ * regravava inteira a cada alteracao. Cada evento recebe o proximo numero
+ * de sequencia do pedido, reservado no contador da linha do pedido; o indice
+ * unico (pedido_id, seq) atende a leitura paginada.
+ */
+@Service
+public class EventosPedidoService {
+
+    private static final Logger log = LoggerFactory.getLogger(EventosPedidoService.class);
+    private static final int LIMITE_PADRAO = 50;
+    private static final int LIMITE_MAXIMO = 200;
+
+    @Autowired
+    private EventoPedidoRepository eventoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void migrarHistoricoLegado() {
+        if (eventoRepository.count() > 0) {
+            return;
+        }
+        List<Map<String, Object>> linhas;
+        try {
+            linhas = jdbcTemplate.queryForList("SELECT pedido_id, evento FROM pedido_eventos");
+        } catch (DataAccessException e) {
+            return;
+        }
+
+        // Os textos antigos tem o formato "<data> - <descricao>". A tabela nao
+        // guarda a ordem de insercao, entao os eventos sao numerados pela data.
+        List<EventoPedido> eventos = new ArrayList<>();
+        for (Map<String, Object> linha : linhas) {
+            String texto = String.valueOf(linha.get("evento"));
+            LocalDateTime dataHora = null;
+            int separador = texto.indexOf(" - ");
+            if (separador > 0) {
+                try {
+                    dataHora = LocalDateTime.parse(texto.substring(0, separador));
+                    texto = texto.substring(separador + 3);
+                } catch (DateTimeParseException ignored) {
+                }
+            }
+            eventos.add(new EventoPedido((String) linha.get("pedido_id"), 0, TipoEventoPedido.LEGADO, null, dataHora, texto));
+        }
+        eventos.sort(Comparator.comparing(EventoPedido::getPedidoId)
+                .thenComparing(EventoPedido::getDataHora, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        Map<String, Long> sequencias = new HashMap<>();
+        LocalDateTime agora = LocalDateTime.now();
+        for (int i = 0; i < eventos.size(); i++) {
+            EventoPedido evento = eventos.get(i);
+            long seq = sequencias.merge(evento.getPedidoId(), 1L, Long::sum);
+            eventos.set(i, new EventoPedido(evento.getPedidoId(), seq, TipoEventoPedido.LEGADO, null,
+                    evento.getDataHora() != null ? evento.getDataHora() : agora, evento.getDescricao()));
+        }
+        eventoRepository.saveAll(eventos);
+        log.info("Historico de pedidos migrado: {} eventos de {} pedidos", eventos.size(), sequencias.size());
+    }
+
+    /**
+     * Registra o evento tendo como autor o usuario autenticado, se houver.
+     */
+    @Transactional
+    public void registrar(String pedidoId, TipoEventoPedido tipo, String descricao) {
+        registrar(pedidoId, tipo, usuarioAutenticado(), descricao);
+    }
+
+    @Transactional
+    public void registrar(String pedidoId, TipoEventoPedido tipo, String atorId, String descricao) {
+        Long seq = reservarSeq(List.of(pedidoId)).get(pedidoId);
+        if (seq == null) {
+            throw new RuntimeException("Pedido nao encontrado");
+        }
+        eventoRepository.save(new EventoPedido(pedidoId, seq, tipo, atorId, LocalDateTime.now(), descricao));
+    }
+
+    /**
+     * Registra o mesmo evento em varios pedidos, reservando as sequencias de
+     * todos num unico UPDATE e gravando os eventos em lote.
+     */
+    @Transactional
+    public void registrarEmLote(Collection<String> pedidoIds, TipoEventoPedido tipo, String descricao) {
+        if (pedidoIds.isEmpty()) {
+            return;
+        }
+        Map<String, Long> sequencias = reservarSeq(pedidoIds);
+        String atorId = usuarioAutenticado();
+        LocalDateTime agora = LocalDateTime.now();
+        List<EventoPedido> eventos = new ArrayList<>();
+        sequencias.forEach((pedidoId, seq) ->
+                eventos.add(new EventoPedido(pedidoId, seq, tipo, atorId, agora, descricao)));
+        eventoRepository.saveAll(eventos);
+    }
+
+    /**
+     * Eventos do pedido em ordem, a partir do seguinte a depoisDe (0 para o inicio).
+     */
+    public List<EventoPedidoDTO> listar(String pedidoId, Long depoisDe, Integer limite) {
+        int tamanho = limite == null || limite <= 0 ? LIMITE_PADRAO : Math.min(limite, LIMITE_MAXIMO);
+        List<EventoPedidoDTO> eventos = new ArrayList<>();
+        for (EventoPedido evento : eventoRepository.findPagina(
+                pedidoId, depoisDe != null ? depoisDe : 0, PageRequest.of(0, tamanho))) {
+            EventoPedidoDTO dto = new EventoPedidoDTO();
+            dto.setSeq(evento.getSeq());
+            dto.setTipo(evento.getTipo());
+            dto.setAtorId(evento.getAtorId());
+            dto.setDataHora(evento.getDataHora());
+            dto.setDescricao(evento.getDescricao());
+            eventos.add(dto);
+        }
+        return eventos;
+    }
+
+    @Transactional
+    public void removerPedido(String pedidoId) {
+        eventoRepository.removerPorPedido(pedidoId);
+    }
+
+    private Map<String, Long> reservarSeq(Collection<String> pedidoIds) {
+        eventoRepository.reservarSeq(pedidoIds);
+        Map<String, Long> sequencias = new HashMap<>();
+        for (Object[] linha : eventoRepository.findUltimosSeq(pedidoIds)) {
+            sequencias.put((String) linha[0], ((Number) linha[1]).longValue());
+        }
+        return sequencias;
+    }
+
+    private static String usuarioAutenticado() {
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacao != null && autenticacao.getPrincipal() instanceof UsuarioDetails detalhes) {
+            return detalhes.getUsuario().getId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,276 @@
+package com.metalSpring.services;
+
+import com.metalSpring.model.dto.FacetaValorDTO;
+import com.metalSpring.model.dto.FacetasDTO;
+import com.metalSpring.model.embeddable.Endereco;
+import com.metalSpring.model.entity.Peca;
+import com.metalSpring.repository.PecaRepository;
+import com.metalSpring.util.TextoUtils;
+import com.metalSpring.util.TransacaoUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Contagens por faceta (marca, categoria, ano, cidade, estado do endereco e
+ * estado de conservacao) das pecas disponiveis, mantidas em memoria.
+ *
+ * Cada valor de faceta guarda um BitSet com os ordinais das pecas que o
+ * possuem. Sem filtros a contagem e a cardinalidade do BitSet; com filtros,
+ * cada faceta e contada sobre a intersecao dos filtros das demais, para que
+ * a lateral continue mostrando as alternativas da faceta ja filtrada.
+ */
+@Service
+public class FacetasPecasService {
+
+    private static final Logger log = LoggerFactory.getLogger(FacetasPecasService.class);
+
+    public enum Faceta {
+        MARCA("marca"),
+        CATEGORIA("categoria"),
+        ANO("ano"),
+        ESTADO_ENDERECO("estadoEndereco"),
+        CIDADE("cidade"),
+        ESTADO_PECA("estadoPeca");
+
+        private final String chave;
+
+        Faceta(String chave) {
+            this.chave = chave;
+        }
+
+        public String getChave() {
+            return chave;
+        }
+    }
+
+    private static final Faceta[] FACETAS = Faceta.values();
+
+    @Autowired
+    private PecaRepository pecaRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final EnumMap<Faceta, Map<String, ValorFaceta>> valores = new EnumMap<>(Faceta.class);
+    private final Map<String, Entrada> entradas = new HashMap<>();
+    private final BitSet ocupados = new BitSet();
+
+    public FacetasPecasService() {
+        for (Faceta faceta : FACETAS) {
+            valores.put(faceta, new HashMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        List<Peca> pecas = pecaRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            valores.values().forEach(Map::clear);
+            entradas.clear();
+            ocupados.clear();
+            for (Peca peca : pecas) {
+                if (peca.isDisponivel()) {
+                    adicionar(peca.getId(), extrairRotulos(peca));
+                }
+            }
+            log.info("Facetas de pecas carregadas: {} pecas, {} marcas, {} categorias",
+                    entradas.size(), valores.get(Faceta.MARCA).size(), valores.get(Faceta.CATEGORIA).size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Atualiza as contagens da peca. Pecas indisponiveis deixam de ser contadas.
+     * Dentro de uma transacao a alteracao so e aplicada apos o commit.
+     */
+    public void indexar(Peca peca) {
+        if (peca == null || peca.getId() == null) {
+            return;
+        }
+        String id = peca.getId();
+        String[] rotulos = peca.isDisponivel() ? extrairRotulos(peca) : null;
+        TransacaoUtils.aposCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                retirar(id);
+                if (rotulos != null) {
+                    adicionar(id, rotulos);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void remover(String pecaId) {
+        if (pecaId == null) {
+            return;
+        }
+        TransacaoUtils.aposCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                retirar(pecaId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Valores distintos da faceta com a quantidade de pecas disponiveis de cada um.
+     */
+    public List<FacetaValorDTO> listar(Faceta faceta) {
+        lock.readLock().lock();
+        try {
+            return contarFaceta(faceta, null, new BitSet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Conta todas as facetas com os filtros informados. Valores vazios sao ignorados
+     * e a comparacao nao diferencia maiusculas nem acentos.
+     */
+    public FacetasDTO contar(Map<Faceta, String> filtros) {
+        lock.readLock().lock();
+        try {
+            EnumMap<Faceta, BitSet> selecionados = new EnumMap<>(Faceta.class);
+            filtros.forEach((faceta, valor) -> {
+                if (valor != null && !valor.isBlank()) {
+                    ValorFaceta encontrado = valores.get(faceta).get(TextoUtils.normalizar(valor.trim()));
+                    selecionados.put(faceta, encontrado != null ? encontrado.pecas : new BitSet());
+                }
+            });
+
+            BitSet rascunho = new BitSet();
+            Map<String, List<FacetaValorDTO>> resultado = new LinkedHashMap<>();
+            for (Faceta faceta : FACETAS) {
+                resultado.put(faceta.getChave(), contarFaceta(faceta, intersecao(selecionados, faceta), rascunho));
+            }
+            BitSet todos = intersecao(selecionados, null);
+            long total = todos == null ? entradas.size() : todos.cardinality();
+            return new FacetasDTO(total, resultado);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<FacetaValorDTO> contarFaceta(Faceta faceta, BitSet base, BitSet rascunho) {
+        List<FacetaValorDTO> itens = new ArrayList<>();
+        for (ValorFaceta valor : valores.get(faceta).values()) {
+            long quantidade;
+            if (base == null) {
+                quantidade = valor.pecas.cardinality();
+            } else {
+                rascunho.clear();
+                rascunho.or(valor.pecas);
+                rascunho.and(base);
+                quantidade = rascunho.cardinality();
+            }
+            if (quantidade > 0) {
+                itens.add(new FacetaValorDTO(valor.rotulo, quantidade));
+            }
+        }
+        itens.sort(faceta == Faceta.ANO
+                ? Comparator.comparing(item -> Integer.valueOf(item.getValor()))
+                : Comparator.comparing(FacetaValorDTO::getValor, String.CASE_INSENSITIVE_ORDER));
+        return itens;
+    }
+
+    private static BitSet intersecao(Map<Faceta, BitSet> selecionados, Faceta ignorada) {
+        BitSet resultado = null;
+        for (Map.Entry<Faceta, BitSet> entry : selecionados.entrySet()) {
+            if (entry.getKey() == ignorada) {
+                continue;
+            }
+            if (resultado == null) {
+                resultado = (BitSet) entry.getValue().clone();
+            } else {
+                resultado.and(entry.getValue());
+            }
+        }
+        return resultado;
+    }
+
+    private void adicionar(String id, String[] rotulos) {
+        int ordinal = ocupados.nextClearBit(0);
+        ocupados.set(ordinal);
+        String[] chaves = new String[FACETAS.length];
+        for (Faceta faceta : FACETAS) {
+            String rotulo = rotulos[faceta.ordinal()];
+            if (rotulo == null) {
+                continue;
+            }
+            String chave = TextoUtils.normalizar(rotulo);
+            valores.get(faceta).computeIfAbsent(chave, c -> new ValorFaceta(rotulo)).pecas.set(ordinal);
+            chaves[faceta.ordinal()] = chave;
+        }
+        entradas.put(id, new Entrada(ordinal, chaves));
+    }
+
+    private void retirar(String id) {
+        Entrada entrada = entradas.remove(id);
+        if (entrada == null) {
+            return;
+        }
+        ocupados.clear(entrada.ordinal());
+        for (Faceta faceta : FACETAS) {
+            String chave = entrada.chaves()[faceta.ordinal()];
+            if (chave == null) {
+                continue;
+            }
+            Map<String, ValorFaceta> daFaceta = valores.get(faceta);
+            ValorFaceta valor = daFaceta.get(chave);
+            if (valor != null) {
+                valor.pecas.clear(entrada.ordinal());
+                if (valor.pecas.isEmpty()) {
+                    daFaceta.remove(chave);
+                }
+            }
+        }
+    }
+
+    private static String[] extrairRotulos(Peca peca) {
+        String[] rotulos = new String[FACETAS.length];
+        rotulos[Faceta.MARCA.ordinal()] = limpar(peca.getMarca());
+        rotulos[Faceta.CATEGORIA.ordinal()] = limpar(peca.getCategoria());
+        rotulos[Faceta.ANO.ordinal()] = peca.getAno() != null ? peca.getAno().toString() : null;
+        Endereco endereco = peca.getEndereco();
+        if (endereco != null) {
+            rotulos[Faceta.ESTADO_ENDERECO.ordinal()] = limpar(endereco.getEstado());
+            rotulos[Faceta.CIDADE.ordinal()] = limpar(endereco.getCidade());
+        }
+        rotulos[Faceta.ESTADO_PECA.ordinal()] = peca.getEstado() != null ? peca.getEstado().name() : null;
+        return rotulos;
+    }
+
+    private static String limpar(String valor) {
+        return valor == null || valor.isBlank() ? null : valor.trim();
+    }
+
+    private record Entrada(int ordinal, String[] chaves) {}
+
+    private static final class ValorFaceta {
+        private final String rotulo;
+        private final BitSet pecas = new BitSet();
+
+        ValorFaceta(String rotulo) {
+            this.rotulo = rotulo;
+        }
+    }
+}
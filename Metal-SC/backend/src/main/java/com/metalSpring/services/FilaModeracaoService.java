@@ -0,0 +1,337 @@
+package com.metalSpring.services;
+
+import com.metalSpring.model.entity.AlertaModeracao;
+import com.metalSpring.model.entity.MensagemNegociacao;
+import com.metalSpring.model.enums.AlertaModeracaoStatus;
+import com.metalSpring.repository.AlertaModeracaoRepository;
+import com.metalSpring.repository.MensagemNegociacaoRepository;
+import com.metalSpring.util.TextoUtils;
+import com.metalSpring.util.TransacaoUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Moderacao das mensagens do chat fora da transacao de envio.
+ *
+ * A mensagem entra apos o commit em uma das filas limitadas, escolhida pelo
+ * remetente, e e consumida pelo worker daquela fila em uma thread virtual,
+ * que junta lotes, roda a deteccao e grava os alertas do lote em uma unica
+ * transacao, com novas tentativas em caso de falha; esgotadas as tentativas,
+ * as mensagens sao gravadas uma a uma para que uma mensagem problematica
+ * nao descarte o lote inteiro. Com a fila cheia uma thread virtual aguarda
+ * vaga na mesma fila, para que nenhuma mensagem deixe de ser verificada sem
+ * prender a requisicao nem a sua conexao.
+ * Como cada usuario tem um unico worker, infracoes repetidas dentro da
+ * janela de agrupamento viram ocorrencias de um mesmo alerta, sem alertas
+ * duplicados. A garantia vale para uma instancia: com varias, o
+ * agrupamento pode abrir alertas repetidos.
+ */
+@Service
+public class FilaModeracaoService {
+
+    private static final Logger log = LoggerFactory.getLogger(FilaModeracaoService.class);
+
+    private static final Pattern NAO_ALFANUMERICO = Pattern.compile("[^\\p{Alnum}@]");
+
+    @Autowired
+    private ModeracaoService moderacaoService;
+
+    @Autowired
+    private AlertaModeracaoRepository alertaRepository;
+
+    @Autowired
+    private MensagemNegociacaoRepository mensagemRepository;
+
+    @Autowired
+    private AlertasModeracaoService alertasModeracaoService;
+
+    @Autowired
+    private MetricasService metricasService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.moderacao.fila-capacidade:10000}")
+    private int capacidade;
+
+    @Value("${app.moderacao.workers:2}")
+    private int quantidadeWorkers;
+
+    @Value("${app.moderacao.lote:100}")
+    private int tamanhoLote;
+
+    @Value("${app.moderacao.tentativas:3}")
+    private int tentativas;
+
+    @Value("${app.moderacao.agrupamento-minutos:60}")
+    private long janelaAgrupamentoMinutos;
+
+    private final List<BlockingQueue<Tarefa>> filas = new ArrayList<>();
+    private TransactionTemplate transacao;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean ativo = true;
+
+    @PostConstruct
+    public void iniciar() {
+        transacao = new TransactionTemplate(transactionManager);
+        int total = Math.max(1, quantidadeWorkers);
+        for (int i = 0; i < total; i++) {
+            filas.add(new ArrayBlockingQueue<>(Math.max(1, capacidade / total)));
+            int indice = i;
+            workers.add(Thread.ofVirtual().name("moderacao-" + i).start(() -> consumir(indice)));
+        }
+        metricasService.registrarMedidor("moderacao.fila.tamanho", this::pendentes);
+        metricasService.registrarMedidor("moderacao.fila.atraso-ms", () -> {
+            long maisAntiga = 0;
+            for (BlockingQueue<Tarefa> fila : filas) {
+                Tarefa primeira = fila.peek();
+                if (primeira != null) {
+                    maisAntiga = Math.max(maisAntiga, System.nanoTime() - primeira.enfileiradaEm());
+                }
+            }
+            return TimeUnit.NANOSECONDS.toMillis(maisAntiga);
+        });
+    }
+
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        ativo = false;
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        int pendentes = pendentes();
+        if (pendentes > 0) {
+            log.warn("Encerrando com {} mensagens pendentes de moderacao", pendentes);
+        }
+    }
+
+    /**
+     * Agenda a moderacao da mensagem para depois do commit da transacao corrente.
+     */
+    public void enfileirar(MensagemNegociacao mensagem) {
+        Tarefa tarefa = new Tarefa(mensagem.getId(), mensagem.getConteudo(), System.nanoTime());
+        int indice = Math.floorMod(mensagem.getRemetente().getId().hashCode(), filas.size());
+        TransacaoUtils.aposCommit(() -> {
+            metricasService.incrementar("moderacao.fila.enfileiradas");
+            BlockingQueue<Tarefa> fila = filas.get(indice);
+            if (!fila.offer(tarefa)) {
+                metricasService.incrementar("moderacao.fila.cheia");
+                Thread.ofVirtual().name("moderacao-espera").start(() -> {
+                    try {
+                        fila.put(tarefa);
+                    } catch (InterruptedException e) {
+                        log.warn("Mensagem {} nao moderada: espera pela fila interrompida", tarefa.mensagemId());
+                    }
+                });
+            }
+        });
+    }
+
+    private void consumir(int indice) {
+        BlockingQueue<Tarefa> fila = filas.get(indice);
+        List<Tarefa> lote = new ArrayList<>(tamanhoLote);
+        while (ativo || !fila.isEmpty()) {
+            try {
+                Tarefa primeira = fila.poll(1, TimeUnit.SECONDS);
+                if (primeira == null) {
+                    continue;
+                }
+                lote.add(primeira);
+                fila.drainTo(lote, tamanhoLote - 1);
+                processar(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Falha inesperada no worker de moderacao", e);
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private int pendentes() {
+        int total = 0;
+        for (BlockingQueue<Tarefa> fila : filas) {
+            total += fila.size();
+        }
+        return total;
+    }
+
+    private void processar(List<Tarefa> lote) {
+        // A deteccao roda uma unica vez; so a gravacao e repetida.
+        Map<String, List<ModeracaoService.Deteccao>> porMensagem = new HashMap<>();
+        for (Tarefa tarefa : lote) {
+            List<ModeracaoService.Deteccao> deteccoes = moderacaoService.detectar(tarefa.conteudo());
+            if (!deteccoes.isEmpty()) {
+                porMensagem.put(tarefa.mensagemId(), deteccoes);
+            }
+        }
+
+        if (!porMensagem.isEmpty()) {
+            gravarComRetentativa(porMensagem);
+        }
+
+        long atrasoMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lote.get(0).enfileiradaEm());
+        metricasService.registrarValor("moderacao.lote.atraso-ms", atrasoMs);
+        metricasService.incrementar("moderacao.processadas", lote.size());
+    }
+
+    private void gravarComRetentativa(Map<String, List<ModeracaoService.Deteccao>> porMensagem) {
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                int gravados = transacao.execute(status -> gravar(porMensagem));
+                metricasService.incrementar("moderacao.alertas", gravados);
+                return;
+            } catch (RuntimeException e) {
+                if (tentativa >= tentativas) {
+                    log.warn("Falha ao gravar alertas de {} mensagens apos {} tentativas, gravando uma a uma",
+                            porMensagem.size(), tentativa, e);
+                    gravarUmaAUma(porMensagem);
+                    return;
+                }
+                log.warn("Falha ao gravar alertas de moderacao (tentativa {}): {}", tentativa, e.getMessage());
+                try {
+                    Thread.sleep(200L << (tentativa - 1));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // Isola a mensagem problematica: as demais do lote ainda geram seus alertas.
+    private void gravarUmaAUma(Map<String, List<ModeracaoService.Deteccao>> porMensagem) {
+        int gravados = 0;
+        for (Map.Entry<String, List<ModeracaoService.Deteccao>> entry : porMensagem.entrySet()) {
+            try {
+                Integer criados = transacao.execute(status -> gravar(Map.of(entry.getKey(), entry.getValue())));
+                gravados += criados != null ? criados : 0;
+            } catch (RuntimeException e) {
+                metricasService.incrementar("moderacao.falhas");
+                log.error("Alertas da mensagem {} descartados ({} deteccoes)", entry.getKey(), entry.getValue().size(), e);
+            }
+        }
+        metricasService.incrementar("moderacao.alertas", gravados);
+    }
+
+    /**
+     * Grava as deteccoes do lote agrupando as repetidas: a mesma infracao
+     * (usuario, regra e trecho normalizado) ainda pendente e vista dentro da
+     * janela soma ocorrencias no alerta existente em vez de gerar outro.
+     * Retorna quantos alertas novos foram criados.
+     */
+    private int gravar(Map<String, List<ModeracaoService.Deteccao>> porMensagem) {
+        List<MensagemNegociacao> mensagens = new ArrayList<>(mensagemRepository.findAllById(porMensagem.keySet()));
+        mensagens.sort(Comparator.comparing(MensagemNegociacao::getDataEnvio));
+
+        Map<ChaveAlerta, Agrupamento> agrupados = new LinkedHashMap<>();
+        Set<String> usuarios = new HashSet<>();
+        for (MensagemNegociacao mensagem : mensagens) {
+            String usuarioId = mensagem.getRemetente().getId();
+            for (ModeracaoService.Deteccao deteccao : porMensagem.get(mensagem.getId())) {
+                ChaveAlerta chave = new ChaveAlerta(usuarioId, chaveAgrupamento(deteccao));
+                agrupados.computeIfAbsent(chave, c -> new Agrupamento(mensagem, deteccao)).ocorrencias++;
+                usuarios.add(usuarioId);
+            }
+        }
+        if (agrupados.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime agora = LocalDateTime.now();
+        Map<ChaveAlerta, String> abertos = new HashMap<>();
+        for (Object[] linha : alertaRepository.findAbertosParaAgrupar(
+                usuarios,
+                agrupados.keySet().stream().map(ChaveAlerta::chave).collect(Collectors.toSet()),
+                AlertaModeracaoStatus.PENDENTE,
+                agora.minusMinutes(janelaAgrupamentoMinutos))) {
+            abertos.putIfAbsent(new ChaveAlerta((String) linha[1], (String) linha[2]), (String) linha[0]);
+        }
+
+        List<AlertaModeracao> alertas = new ArrayList<>();
+        long agrupadas = 0;
+        for (Map.Entry<ChaveAlerta, Agrupamento> entry : agrupados.entrySet()) {
+            Agrupamento agrupamento = entry.getValue();
+            String existente = abertos.get(entry.getKey());
+            if (existente != null) {
+                alertasModeracaoService.somarOcorrencias(existente, entry.getKey().usuarioId(),
+                        agrupamento.deteccao.tipo(), agrupamento.ocorrencias, agora);
+                agrupadas += agrupamento.ocorrencias;
+                continue;
+            }
+            MensagemNegociacao mensagem = agrupamento.mensagem;
+            AlertaModeracao alerta = new AlertaModeracao();
+            alerta.setMensagem(mensagem);
+            alerta.setUsuario(mensagem.getRemetente());
+            alerta.setUsuarioNome(mensagem.getRemetente().getNome());
+            alerta.setUsuarioTipo(mensagem.getRemetente().getTipo());
+            alerta.setMensagemEnviada(mensagem.getConteudo());
+            alerta.setPalavraDetectada(agrupamento.deteccao.palavra());
+            alerta.setTipoInfracao(agrupamento.deteccao.tipo());
+            alerta.setNivelRisco(agrupamento.deteccao.risco());
+            alerta.setChaveAgrupamento(entry.getKey().chave());
+            alerta.setOcorrencias(agrupamento.ocorrencias);
+            alerta.setUltimaOcorrencia(agora);
+            alertas.add(alerta);
+            agrupadas += agrupamento.ocorrencias - 1;
+        }
+        alertasModeracaoService.criar(alertas);
+        metricasService.incrementar("moderacao.alertas.agrupados", agrupadas);
+        return alertas.size();
+    }
+
+    // Regra mais o trecho sem acentos, maiusculas, espacos e pontuacao: "(11) 98765-4321" = "11987654321".
+    private static String chaveAgrupamento(ModeracaoService.Deteccao deteccao) {
+        String trecho = NAO_ALFANUMERICO.matcher(TextoUtils.normalizar(deteccao.palavra())).replaceAll("");
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest((deteccao.regraId() + "|" + trecho).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record ChaveAlerta(String usuarioId, String chave) {}
+
+    private static final class Agrupamento {
+        private final MensagemNegociacao mensagem;
+        private final ModeracaoService.Deteccao deteccao;
+        private int ocorrencias;
+
+        Agrupamento(MensagemNegociacao mensagem, ModeracaoService.Deteccao deteccao) {
+            this.mensagem = mensagem;
+            this.deteccao = deteccao;
+        }
+    }
+
+    private record Tarefa(String mensagemId, String conteudo, long enfileiradaEm) {}
+}
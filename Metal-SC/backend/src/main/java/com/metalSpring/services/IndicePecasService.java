@@ -0,0 +1,490 @@
+package com.metalSpring.services;
+
+import com.metalSpring.model.entity.Peca;
+import com.metalSpring.repository.PecaRepository;
+import com.metalSpring.util.TextoUtils;
+import com.metalSpring.util.TransacaoUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Indice invertido em memoria sobre o texto das pecas disponiveis
+ * (nome, descricao, marca, modeloVeiculo e categoria).
+ *
+ * Cada peca recebe um ordinal inteiro crescente; as listas de postagens
+ * guardam ordinais e pesos em arrays primitivos, sempre ordenados. Uma
+ * atualizacao marca o ordinal antigo como removido e indexa a peca com um
+ * ordinal novo, e a compactacao reaproveita o espaco quando os removidos
+ * passam da metade do indice.
+ *
+ * As buscas por trecho de um unico campo (nome ou modeloVeiculo) casam em
+ * qualquer posicao, como o LIKE '%x%' que substituem. Para elas o indice
+ * guarda tambem os trigramas de cada campo e o seu texto normalizado: os
+ * candidatos saem da intersecao das listas dos trigramas do trecho e sao
+ * confirmados no texto, sem limite de resultados.
+ */
+@Service
+public class IndicePecasService {
+
+    private static final Logger log = LoggerFactory.getLogger(IndicePecasService.class);
+
+    private static final int PESO_NOME = 3;
+    private static final int PESO_MARCA = 2;
+    private static final int PESO_MODELO = 2;
+    private static final int PESO_CATEGORIA = 1;
+    private static final int PESO_DESCRICAO = 1;
+    private static final float FATOR_PREFIXO = 0.5f;
+    private static final int TAMANHO_MINIMO_PREFIXO = 2;
+    private static final int MINIMO_REMOVIDOS_COMPACTAR = 1024;
+    private static final int TAMANHO_TRIGRAMA = 3;
+
+    @Autowired
+    private PecaRepository pecaRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, ListaPostagens> postagens = new TreeMap<>();
+    private final Map<String, Integer> ordinalPorId = new HashMap<>();
+    private final List<String> idPorOrdinal = new ArrayList<>();
+    private final BitSet removidos = new BitSet();
+    private final Map<String, ListaPostagens> trigramas = new HashMap<>();
+    private final List<String[]> camposPorOrdinal = new ArrayList<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        List<Peca> pecas = pecaRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            postagens.clear();
+            ordinalPorId.clear();
+            idPorOrdinal.clear();
+            removidos.clear();
+            trigramas.clear();
+            camposPorOrdinal.clear();
+            for (Peca peca : pecas) {
+                if (peca.isDisponivel()) {
+                    adicionar(peca.getId(), extrairTermos(peca), extrairCampos(peca));
+                }
+            }
+            log.info("Indice de pecas carregado: {} pecas, {} termos", ordinalPorId.size(), postagens.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexa (ou reindexa) a peca. Pecas indisponiveis saem do indice.
+     * Dentro de uma transacao a alteracao so e aplicada apos o commit.
+     */
+    public void indexar(Peca peca) {
+        if (peca == null || peca.getId() == null) {
+            return;
+        }
+        String id = peca.getId();
+        Map<String, Integer> termos = peca.isDisponivel() ? extrairTermos(peca) : null;
+        String[] campos = peca.isDisponivel() ? extrairCampos(peca) : null;
+        TransacaoUtils.aposCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                retirar(id);
+                if (termos != null) {
+                    adicionar(id, termos, campos);
+                }
+                compactarSeNecessario();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void remover(String pecaId) {
+        if (pecaId == null) {
+            return;
+        }
+        TransacaoUtils.aposCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                retirar(pecaId);
+                compactarSeNecessario();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Busca os ids das pecas que contem todos os termos do texto, do mais
+     * relevante para o menos relevante. Cada termo tambem casa como prefixo
+     * ("amort" encontra "amortecedor"), com peso menor que o termo exato.
+     */
+    public List<String> buscar(String texto, int limite) {
+        Set<String> tokens = new LinkedHashSet<>(tokenizar(texto));
+        if (tokens.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Candidatos acumulado = null;
+            for (String token : tokens) {
+                Candidatos doToken = candidatosDoToken(token);
+                acumulado = acumulado == null ? doToken : acumulado.intersectar(doToken);
+                if (acumulado.tamanho == 0) {
+                    return List.of();
+                }
+            }
+            return acumulado.melhores(limite, idPorOrdinal);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Resolve a busca textual para as entidades, preservando a ordem de relevancia.
+     */
+    public List<Peca> buscarPecas(String texto, int limite) {
+        return resolver(buscar(texto, limite));
+    }
+
+    /**
+     * Pecas cujo nome contem o trecho em qualquer posicao, ignorando maiusculas e acentos.
+     */
+    public List<Peca> buscarPorNome(String trecho) {
+        return resolver(buscarNoCampo(Campo.NOME, trecho));
+    }
+
+    /**
+     * Pecas cujo modelo de veiculo contem o trecho em qualquer posicao, ignorando maiusculas e acentos.
+     */
+    public List<Peca> buscarPorModeloVeiculo(String trecho) {
+        return resolver(buscarNoCampo(Campo.MODELO, trecho));
+    }
+
+    // Sem limite e sem ordem definida, como as consultas LIKE que substitui: os
+    // ordinais seguem a ordem de carga e reindexacao, nao a data da peca.
+    private List<String> buscarNoCampo(Campo campo, String trecho) {
+        String alvo = TextoUtils.normalizar(trecho);
+        Set<String> doTrecho = trigramasDe(alvo);
+        lock.readLock().lock();
+        try {
+            int[] docs;
+            int n;
+            if (doTrecho.isEmpty()) {
+                // Trecho menor que um trigrama: confere o campo de todas as pecas.
+                n = idPorOrdinal.size();
+                docs = new int[n];
+                for (int i = 0; i < n; i++) {
+                    docs[i] = i;
+                }
+            } else {
+                List<ListaPostagens> listas = new ArrayList<>(doTrecho.size());
+                for (String trigrama : doTrecho) {
+                    ListaPostagens lista = trigramas.get(campo.ordinal() + trigrama);
+                    if (lista == null) {
+                        return List.of();
+                    }
+                    listas.add(lista);
+                }
+                listas.sort((a, b) -> Integer.compare(a.tamanho, b.tamanho));
+                docs = Arrays.copyOf(listas.get(0).docs, listas.get(0).tamanho);
+                n = docs.length;
+                for (int k = 1; k < listas.size() && n > 0; k++) {
+                    n = intersectar(docs, n, listas.get(k));
+                }
+            }
+
+            List<String> ids = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                int doc = docs[i];
+                if (!removidos.get(doc) && camposPorOrdinal.get(doc)[campo.ordinal()].contains(alvo)) {
+                    ids.add(idPorOrdinal.get(doc));
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Mantem em docs[0..n) apenas os que tambem estao na lista; ambos ordenados.
+    private static int intersectar(int[] docs, int n, ListaPostagens lista) {
+        int mantidos = 0;
+        int j = 0;
+        for (int i = 0; i < n && j < lista.tamanho; ) {
+            if (docs[i] < lista.docs[j]) {
+                i++;
+            } else if (docs[i] > lista.docs[j]) {
+                j++;
+            } else {
+                docs[mantidos++] = docs[i];
+                i++;
+                j++;
+            }
+        }
+        return mantidos;
+    }
+
+    private List<Peca> resolver(List<String> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Peca> porId = pecaRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Peca::getId, Function.identity()));
+        return ids.stream()
+                .map(porId::get)
+                .filter(Objects::nonNull)
+                .filter(Peca::isDisponivel)
+                .toList();
+    }
+
+    private Candidatos candidatosDoToken(String token) {
+        ListaPostagens exata = postagens.get(token);
+        NavigableMap<String, ListaPostagens> prefixadas = token.length() >= TAMANHO_MINIMO_PREFIXO
+                ? postagens.subMap(token, false, token + Character.MAX_VALUE, false)
+                : Collections.emptyNavigableMap();
+
+        int total = exata != null ? exata.tamanho : 0;
+        for (ListaPostagens lista : prefixadas.values()) {
+            total += lista.tamanho;
+        }
+
+        // doc nos 32 bits altos e pontuacao nos baixos: ordenar agrupa por doc.
+        long[] pares = new long[total];
+        int n = 0;
+        if (exata != null) {
+            n = empacotar(exata, 1f, pares, n);
+        }
+        for (ListaPostagens lista : prefixadas.values()) {
+            n = empacotar(lista, FATOR_PREFIXO, pares, n);
+        }
+        Arrays.sort(pares, 0, n);
+
+        Candidatos candidatos = new Candidatos(n);
+        for (int i = 0; i < n; i++) {
+            int doc = (int) (pares[i] >>> 32);
+            float pontos = Float.intBitsToFloat((int) pares[i]);
+            int ultimo = candidatos.tamanho - 1;
+            if (ultimo >= 0 && candidatos.docs[ultimo] == doc) {
+                candidatos.pontos[ultimo] = Math.max(candidatos.pontos[ultimo], pontos);
+            } else {
+                candidatos.docs[candidatos.tamanho] = doc;
+                candidatos.pontos[candidatos.tamanho] = pontos;
+                candidatos.tamanho++;
+            }
+        }
+        return candidatos;
+    }
+
+    private int empacotar(ListaPostagens lista, float fator, long[] destino, int n) {
+        int vivos = Math.max(1, ordinalPorId.size());
+        float idf = (float) Math.log(1.0 + (double) vivos / lista.tamanho);
+        for (int i = 0; i < lista.tamanho; i++) {
+            int doc = lista.docs[i];
+            if (removidos.get(doc)) {
+                continue;
+            }
+            float pontos = lista.pesos[i] * idf * fator;
+            destino[n++] = ((long) doc << 32) | (Float.floatToRawIntBits(pontos) & 0xFFFFFFFFL);
+        }
+        return n;
+    }
+
+    private void adicionar(String id, Map<String, Integer> termos, String[] campos) {
+        int ordinal = idPorOrdinal.size();
+        idPorOrdinal.add(id);
+        camposPorOrdinal.add(campos);
+        ordinalPorId.put(id, ordinal);
+        termos.forEach((termo, peso) ->
+                postagens.computeIfAbsent(termo, t -> new ListaPostagens()).adicionar(ordinal, peso));
+        for (Campo campo : Campo.values()) {
+            for (String trigrama : trigramasDe(campos[campo.ordinal()])) {
+                trigramas.computeIfAbsent(campo.ordinal() + trigrama, t -> new ListaPostagens()).adicionar(ordinal, 1);
+            }
+        }
+    }
+
+    private void retirar(String id) {
+        Integer ordinal = ordinalPorId.remove(id);
+        if (ordinal != null) {
+            removidos.set(ordinal);
+        }
+    }
+
+    private void compactarSeNecessario() {
+        int totalRemovidos = removidos.cardinality();
+        if (totalRemovidos < MINIMO_REMOVIDOS_COMPACTAR || totalRemovidos * 2 < idPorOrdinal.size()) {
+            return;
+        }
+
+        int[] novoOrdinal = new int[idPorOrdinal.size()];
+        List<String> novosIds = new ArrayList<>(ordinalPorId.size());
+        List<String[]> novosCampos = new ArrayList<>(ordinalPorId.size());
+        for (int ordinal = 0; ordinal < idPorOrdinal.size(); ordinal++) {
+            if (removidos.get(ordinal)) {
+                novoOrdinal[ordinal] = -1;
+            } else {
+                novoOrdinal[ordinal] = novosIds.size();
+                novosIds.add(idPorOrdinal.get(ordinal));
+                novosCampos.add(camposPorOrdinal.get(ordinal));
+            }
+        }
+
+        postagens.values().removeIf(lista -> lista.remapear(novoOrdinal) == 0);
+        trigramas.values().removeIf(lista -> lista.remapear(novoOrdinal) == 0);
+        idPorOrdinal.clear();
+        idPorOrdinal.addAll(novosIds);
+        camposPorOrdinal.clear();
+        camposPorOrdinal.addAll(novosCampos);
+        ordinalPorId.clear();
+        for (int ordinal = 0; ordinal < novosIds.size(); ordinal++) {
+            ordinalPorId.put(novosIds.get(ordinal), ordinal);
+        }
+        removidos.clear();
+    }
+
+    private Map<String, Integer> extrairTermos(Peca peca) {
+        Map<String, Integer> termos = new HashMap<>();
+        acumular(termos, peca.getNome(), PESO_NOME);
+        acumular(termos, peca.getMarca(), PESO_MARCA);
+        acumular(termos, peca.getModeloVeiculo(), PESO_MODELO);
+        acumular(termos, peca.getCategoria(), PESO_CATEGORIA);
+        acumular(termos, peca.getDescricao(), PESO_DESCRICAO);
+        return termos;
+    }
+
+    // Textos normalizados dos campos de busca por trecho, na ordem de Campo.
+    private static String[] extrairCampos(Peca peca) {
+        return new String[] {
+                TextoUtils.normalizar(peca.getNome()),
+                TextoUtils.normalizar(peca.getModeloVeiculo())
+        };
+    }
+
+    private static Set<String> trigramasDe(String texto) {
+        Set<String> resultado = new HashSet<>();
+        for (int i = 0; i + TAMANHO_TRIGRAMA <= texto.length(); i++) {
+            resultado.add(texto.substring(i, i + TAMANHO_TRIGRAMA));
+        }
+        return resultado;
+    }
+
+    private void acumular(Map<String, Integer> termos, String texto, int peso) {
+        for (String token : tokenizar(texto)) {
+            termos.merge(token, peso, Integer::sum);
+        }
+    }
+
+    private static List<String> tokenizar(String texto) {
+        String normalizado = TextoUtils.normalizar(texto);
+        List<String> tokens = new ArrayList<>();
+        int inicio = -1;
+        for (int i = 0; i <= normalizado.length(); i++) {
+            boolean letraOuDigito = i < normalizado.length() && Character.isLetterOrDigit(normalizado.charAt(i));
+            if (letraOuDigito && inicio < 0) {
+                inicio = i;
+            } else if (!letraOuDigito && inicio >= 0) {
+                tokens.add(normalizado.substring(inicio, i));
+                inicio = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private enum Campo { NOME, MODELO }
+
+    private static final class ListaPostagens {
+        private int[] docs = new int[4];
+        private int[] pesos = new int[4];
+        private int tamanho;
+
+        void adicionar(int doc, int peso) {
+            if (tamanho == docs.length) {
+                docs = Arrays.copyOf(docs, tamanho * 2);
+                pesos = Arrays.copyOf(pesos, tamanho * 2);
+            }
+            docs[tamanho] = doc;
+            pesos[tamanho] = peso;
+            tamanho++;
+        }
+
+        int remapear(int[] novoOrdinal) {
+            int n = 0;
+            for (int i = 0; i < tamanho; i++) {
+                int novo = novoOrdinal[docs[i]];
+                if (novo >= 0) {
+                    docs[n] = novo;
+                    pesos[n] = pesos[i];
+                    n++;
+                }
+            }
+            tamanho = n;
+            return n;
+        }
+    }
+
+    private static final class Candidatos {
+        private final int[] docs;
+        private final float[] pontos;
+        private int tamanho;
+
+        Candidatos(int capacidade) {
+            this.docs = new int[capacidade];
+            this.pontos = new float[capacidade];
+        }
+
+        Candidatos intersectar(Candidatos outros) {
+            Candidatos resultado = new Candidatos(Math.min(tamanho, outros.tamanho));
+            int i = 0;
+            int j = 0;
+            while (i < tamanho && j < outros.tamanho) {
+                if (docs[i] < outros.docs[j]) {
+                    i++;
+                } else if (docs[i] > outros.docs[j]) {
+                    j++;
+                } else {
+                    resultado.docs[resultado.tamanho] = docs[i];
+                    resultado.pontos[resultado.tamanho] = pontos[i] + outros.pontos[j];
+                    resultado.tamanho++;
+                    i++;
+                    j++;
+                }
+            }
+            return resultado;
+        }
+
+        List<String> melhores(int limite, List<String> idPorOrdinal) {
+            // pontuacao nos bits altos; em empate o ordinal maior (indexado por ultimo) vem primeiro.
+            long[] ordenados = new long[tamanho];
+            for (int i = 0; i < tamanho; i++) {
+                ordenados[i] = ((long) Float.floatToRawIntBits(pontos[i]) << 32) | (docs[i] & 0xFFFFFFFFL);
+            }
+            Arrays.sort(ordenados);
+            int quantidade = Math.min(limite, tamanho);
+            List<String> ids = new ArrayList<>(quantidade);
+            for (int i = tamanho - 1; i >= tamanho - quantidade; i--) {
+                ids.add(idPorOrdinal.get((int) ordenados[i]));
+            }
+            return ids;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.metalSpring.services;
+
+import com.metalSpring.model.entity.ContadorInfracoes;
+import com.metalSpring.repository.AlertaModeracaoRepository;
+import com.metalSpring.repository.ContadorInfracoesRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Quantidade de infracoes por usuario (ocorrencias dos alertas de moderacao),
+ * mantida a cada gravacao para que o painel nao precise somar a tabela de alertas.
+ * Os ajustes vem do AlertasModeracaoService, que grava os alertas.
+ */
+@Service
+public class InfracoesService {
+
+    private static final Logger log = LoggerFactory.getLogger(InfracoesService.class);
+
+    @Autowired
+    private ContadorInfracoesRepository contadorRepository;
+
+    @Autowired
+    private AlertaModeracaoRepository alertaRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void carregar() {
+        if (contadorRepository.count() > 0) {
+            return;
+        }
+        // Primeira subida com a tabela: reconstroi a partir dos alertas.
+        List<ContadorInfracoes> contadores = new ArrayList<>();
+        for (Object[] linha : alertaRepository.contarPorUsuario()) {
+            contadores.add(new ContadorInfracoes((String) linha[0], (Long) linha[1]));
+        }
+        contadorRepository.saveAll(contadores);
+        log.info("Contadores de infracoes reconstruidos para {} usuarios", contadores.size());
+    }
+
+    @Transactional
+    public void registrar(String usuarioId, long quantidade) {
+        if (quantidade > 0) {
+            contadorRepository.somar(usuarioId, quantidade);
+        }
+    }
+
+    public long contar(String usuarioId) {
+        return contadorRepository.findById(usuarioId).map(ContadorInfracoes::getQuantidade).orElse(0L);
+    }
+
+    public Map<String, Long> contar(Collection<String> usuarioIds) {
+        Map<String, Long> resultado = new HashMap<>();
+        for (ContadorInfracoes contador : contadorRepository.findAllById(usuarioIds)) {
+            resultado.put(contador.getUsuarioId(), contador.getQuantidade());
+        }
+        return resultado;
+    }
+}
@@ -27,6 +27,9 @@ public class ItemPedidoService {
     @Autowired
     private PecaRepository pecaRepository;
 
+    @Autowired
+    private EstoqueService estoqueService;
+
     
 
     public List<ItemPedido> listarTodos() {
@@ -58,9 +61,7 @@ public class ItemPedidoService {
                 .orElseThrow(() -> new RuntimeException("Peça não encontrada: " + dto.getPecaId()));
 
         
-        if (!peca.estaDisponivel() || peca.getEstoque() < dto.getQuantidade()) {
-            throw new RuntimeException("Estoque insuficiente para a peça: " + peca.getNome());
-        }
+        estoqueService.reservar(pedido.getId(), peca.getId(), dto.getQuantidade());
 
         
         ItemPedido item = new ItemPedido();
@@ -74,10 +75,6 @@ public class ItemPedidoService {
         item.calcularSubtotal();
 
         
-        peca.setEstoque(peca.getEstoque() - dto.getQuantidade());
-        pecaRepository.save(peca);
-
-        
         ItemPedido itemSalvo = itemPedidoRepository.save(item);
 
         
@@ -102,19 +99,13 @@ public class ItemPedidoService {
         Integer diferenca = novaQuantidade - quantidadeAnterior;
 
         
-        if (diferenca > 0 && peca.getEstoque() < diferenca) {
-            throw new RuntimeException("Estoque insuficiente. Disponível: " + peca.getEstoque());
-        }
+        estoqueService.ajustar(item.getPedido().getId(), peca.getId(), diferenca);
 
         
         item.setQuantidade(novaQuantidade);
         item.calcularSubtotal();
 
         
-        peca.setEstoque(peca.getEstoque() - diferenca);
-        pecaRepository.save(peca);
-
-        
         ItemPedido itemAtualizado = itemPedidoRepository.save(item);
 
         
@@ -130,12 +121,8 @@ public class ItemPedidoService {
         ItemPedido item = itemPedidoRepository.findById(itemId)
                 .orElseThrow(() -> new RuntimeException("Item não encontrado: " + itemId));
 
-        
-        Peca peca = item.getPeca();
-        peca.setEstoque(peca.getEstoque() + item.getQuantidade());
-        pecaRepository.save(peca);
-
         String pedidoId = item.getPedido().getId();
+        estoqueService.liberar(pedidoId, item.getPeca().getId(), item.getQuantidade());
 
         
         itemPedidoRepository.delete(item);
@@ -0,0 +1,47 @@
+package com.metalSpring.services;
+
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Registro simples de metricas da aplicacao: contadores acumulados,
+ * valores pontuais (ultimo valor registrado) e medidores calculados
+ * no momento da leitura. Exposto em /api/admin/metricas.
+ */
+@Service
+public class MetricasService {
+
+    private final Map<String, LongAdder> contadores = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> valores = new ConcurrentHashMap<>();
+    private final Map<String, Supplier<? extends Number>> medidores = new ConcurrentHashMap<>();
+
+    public void incrementar(String nome) {
+        incrementar(nome, 1);
+    }
+
+    public void incrementar(String nome, long quantidade) {
+        contadores.computeIfAbsent(nome, n -> new LongAdder()).add(quantidade);
+    }
+
+    public void registrarValor(String nome, long valor) {
+        valores.computeIfAbsent(nome, n -> new AtomicLong()).set(valor);
+    }
+
+    public void registrarMedidor(String nome, Supplier<? extends Number> medidor) {
+        medidores.put(nome, medidor);
+    }
+
+    public Map<String, Number> listar() {
+        Map<String, Number> resultado = new TreeMap<>();
+        contadores.forEach((nome, contador) -> resultado.put(nome, contador.sum()));
+        valores.forEach((nome, valor) -> resultado.put(nome, valor.get()));
+        medidores.forEach((nome, medidor) -> resultado.put(nome, medidor.get()));
+        return resultado;
+    }
+}
@@ -0,0 +1,264 @@
+package com.metalSpring.services;
+
+import com.metalSpring.model.dto.RegraModeracaoDTO;
+import com.metalSpring.model.entity.RegraModeracao;
+import com.metalSpring.model.enums.NivelRiscoModeracao;
+import com.metalSpring.repository.RegraModeracaoRepository;
+import com.metalSpring.util.TextoUtils;
+import com.metalSpring.util.TransacaoUtils;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Deteccao de tentativas de levar a negociacao para fora da plataforma.
+ *
+ * As regras ficam na tabela regras_moderacao e sao compiladas em um
+ * {@link MotorModeracao} imutavel. Cada alteracao compila um novo motor apos
+ * o commit e o troca atomicamente, sem bloquear as mensagens em andamento;
+ * alteracoes feitas por outras instancias sao percebidas por uma verificacao
+ * periodica da assinatura da tabela. As contagens por regra sobrevivem as
+ * recargas enquanto a regra existir.
+ */
+@Service
+public class ModeracaoService {
+
+    private static final Logger log = LoggerFactory.getLogger(ModeracaoService.class);
+
+    // Conjunto inicial, gravado na primeira subida com a tabela vazia.
+    static final List<RegraModeracao> REGRAS_PADRAO = List.of(
+            new RegraModeracao("whatsapp", false, "aplicativo externo", NivelRiscoModeracao.ALTO),
+            new RegraModeracao("wa.me", false, "link externo", NivelRiscoModeracao.ALTO),
+            new RegraModeracao("telegram", false, "aplicativo externo", NivelRiscoModeracao.ALTO),
+            new RegraModeracao("instagram", false, "rede social", NivelRiscoModeracao.ALTO),
+            new RegraModeracao("direct", false, "contato externo", NivelRiscoModeracao.MEDIO),
+            new RegraModeracao("me chama", false, "contato externo", NivelRiscoModeracao.MEDIO),
+            new RegraModeracao("chama no zap", false, "contato externo", NivelRiscoModeracao.ALTO),
+            new RegraModeracao("meu numero e", false, "telefone", NivelRiscoModeracao.ALTO),
+            new RegraModeracao("telefone", false, "telefone", NivelRiscoModeracao.MEDIO),
+            new RegraModeracao("gmail", false, "email", NivelRiscoModeracao.MEDIO),
+            new RegraModeracao("hotmail", false, "email", NivelRiscoModeracao.MEDIO),
+            new RegraModeracao("outlook", false, "email", NivelRiscoModeracao.MEDIO),
+            new RegraModeracao("discord", false, "aplicativo externo", NivelRiscoModeracao.ALTO),
+            new RegraModeracao("pix", false, "pagamento externo", NivelRiscoModeracao.ALTO),
+            new RegraModeracao("qr code", false, "qr code textual", NivelRiscoModeracao.ALTO),
+            new RegraModeracao("qrcode", false, "qr code textual", NivelRiscoModeracao.ALTO),
+            new RegraModeracao("[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}", true, "email", NivelRiscoModeracao.ALTO),
+            new RegraModeracao("(?i)(https?://\\S+|www\\.\\S+|\\S+\\.com\\S*)", true, "url", NivelRiscoModeracao.ALTO),
+            new RegraModeracao("(^|\\s)@[\\w._-]{3,}", true, "usuario externo", NivelRiscoModeracao.MEDIO),
+            new RegraModeracao("(?<!\\d)(?:\\+?55\\s*)?(?:\\(?\\d{2}\\)?\\s*)?9?\\d{4}[-\\s.]?\\d{4}(?!\\d)", true, "telefone", NivelRiscoModeracao.ALTO)
+    );
+
+    @Autowired
+    private RegraModeracaoRepository regraRepository;
+
+    @Autowired
+    private MetricasService metricasService;
+
+    private final AtomicReference<Conjunto> atual =
+            new AtomicReference<>(new Conjunto(MotorModeracao.compilar(List.of()), List.of(), null));
+    private final Map<String, LongAdder> ocorrencias = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void iniciar() {
+        metricasService.registrarMedidor("moderacao.regras", () -> atual.get().regras().size());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void carregar() {
+        if (regraRepository.count() == 0) {
+            List<RegraModeracao> padrao = new ArrayList<>();
+            for (RegraModeracao regra : REGRAS_PADRAO) {
+                padrao.add(new RegraModeracao(regra.getTermo(), regra.isExpressaoRegular(), regra.getTipo(), regra.getNivelRisco()));
+            }
+            regraRepository.saveAll(padrao);
+        }
+        TransacaoUtils.aposCommit(this::recompilar);
+    }
+
+    public List<Deteccao> detectar(String conteudo) {
+        List<Deteccao> deteccoes = atual.get().motor().detectar(conteudo);
+        if (!deteccoes.isEmpty()) {
+            metricasService.incrementar("moderacao.deteccoes", deteccoes.size());
+        }
+        return deteccoes;
+    }
+
+    /**
+     * Regras cadastradas, ativas ou nao, com a quantidade de deteccoes de cada uma.
+     */
+    public List<RegraModeracaoDTO> listarRegras() {
+        List<RegraModeracaoDTO> resultado = new ArrayList<>();
+        for (RegraModeracao regra : regraRepository.findAllByOrderByTipoAscTermoAsc()) {
+            resultado.add(toDTO(regra));
+        }
+        return resultado;
+    }
+
+    /**
+     * Deteccoes por id das regras ativas, lidas do motor atual sem consultar o
+     * banco. Pelo id, uma regra de termo e uma de expressao com o mesmo texto
+     * nao se sobrescrevem; o termo de cada id esta em listarRegras().
+     */
+    public Map<String, Long> ocorrenciasPorRegra() {
+        Map<String, Long> resultado = new TreeMap<>();
+        for (MotorModeracao.Regra regra : atual.get().regras()) {
+            resultado.put(regra.id(), regra.ocorrencias().sum());
+        }
+        return resultado;
+    }
+
+    @Transactional
+    public RegraModeracaoDTO criarRegra(RegraModeracaoDTO dto) {
+        RegraModeracao regra = new RegraModeracao();
+        aplicar(regra, dto);
+        if (regraRepository.existsByTermoAndExpressaoRegular(regra.getTermo(), regra.isExpressaoRegular())) {
+            throw new RuntimeException("Ja existe uma regra com este termo");
+        }
+        RegraModeracao salva = regraRepository.save(regra);
+        TransacaoUtils.aposCommit(this::recompilar);
+        return toDTO(salva);
+    }
+
+    /**
+     * Atualiza a regra. Se a versao for informada e nao for a atual, a alteracao
+     * e recusada para nao sobrescrever a edicao de outro administrador.
+     */
+    @Transactional
+    public RegraModeracaoDTO atualizarRegra(String id, RegraModeracaoDTO dto) {
+        RegraModeracao regra = regraRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Regra de moderacao nao encontrada"));
+        if (dto.getVersao() != null && !dto.getVersao().equals(regra.getVersao())) {
+            throw new RuntimeException("Regra alterada por outro usuario, recarregue e tente novamente");
+        }
+        aplicar(regra, dto);
+        if (regraRepository.existsByTermoAndExpressaoRegularAndIdNot(regra.getTermo(), regra.isExpressaoRegular(), id)) {
+            throw new RuntimeException("Ja existe uma regra com este termo");
+        }
+        RegraModeracao salva = regraRepository.saveAndFlush(regra);
+        TransacaoUtils.aposCommit(this::recompilar);
+        return toDTO(salva);
+    }
+
+    @Transactional
+    public void removerRegra(String id) {
+        if (!regraRepository.existsById(id)) {
+            throw new RuntimeException("Regra de moderacao nao encontrada");
+        }
+        regraRepository.deleteById(id);
+        TransacaoUtils.aposCommit(this::recompilar);
+    }
+
+    /**
+     * Recompila a partir do banco, por exemplo apos alteracoes feitas direto na tabela.
+     */
+    public List<RegraModeracaoDTO> recarregar() {
+        recompilar();
+        return listarRegras();
+    }
+
+    @Scheduled(fixedDelayString = "${app.moderacao.regras-verificacao-ms:30000}",
+            initialDelayString = "${app.moderacao.regras-verificacao-ms:30000}")
+    public void verificarAlteracoes() {
+        if (!Objects.equals(assinatura(), atual.get().assinatura())) {
+            recompilar();
+        }
+    }
+
+    private synchronized void recompilar() {
+        String assinatura = assinatura();
+        List<RegraModeracao> regras = regraRepository.findAll();
+        List<MotorModeracao.Regra> compiladas = new ArrayList<>();
+        Set<String> ids = new HashSet<>();
+        for (RegraModeracao regra : regras) {
+            ids.add(regra.getId());
+            if (!regra.isAtivo()) {
+                continue;
+            }
+            Pattern padrao = null;
+            if (!regra.isExpressaoRegular() && TextoUtils.dobrar(regra.getTermo()).isBlank()) {
+                log.warn("Regra de moderacao {} ignorada: termo vazio sem acentos", regra.getId());
+                continue;
+            }
+            if (regra.isExpressaoRegular()) {
+                try {
+                    padrao = Pattern.compile(regra.getTermo());
+                } catch (PatternSyntaxException e) {
+                    log.warn("Regra de moderacao {} ignorada: expressao regular invalida", regra.getId());
+                    continue;
+                }
+            }
+            LongAdder contador = ocorrencias.computeIfAbsent(regra.getId(), id -> new LongAdder());
+            compiladas.add(new MotorModeracao.Regra(regra.getId(), regra.getTermo(), regra.getTipo(), regra.getNivelRisco(), padrao, contador));
+        }
+
+        atual.set(new Conjunto(MotorModeracao.compilar(compiladas), List.copyOf(compiladas), assinatura));
+        ocorrencias.keySet().retainAll(ids);
+        log.info("Regras de moderacao compiladas: {} ativas de {}", compiladas.size(), regras.size());
+    }
+
+    private String assinatura() {
+        List<Object[]> linhas = regraRepository.calcularAssinatura();
+        return linhas.isEmpty() ? null : Arrays.toString(linhas.get(0));
+    }
+
+    private static void aplicar(RegraModeracao regra, RegraModeracaoDTO dto) {
+        String termo = dto.getTermo() == null ? "" : dto.getTermo().trim();
+        if (termo.isEmpty() || dto.getTipo() == null || dto.getTipo().isBlank() || dto.getNivelRisco() == null) {
+            throw new RuntimeException("Regra de moderacao incompleta: termo, tipo e nivelRisco sao obrigatorios");
+        }
+        if (dto.isRegex()) {
+            try {
+                Pattern.compile(termo);
+            } catch (PatternSyntaxException e) {
+                throw new RuntimeException("Expressao regular invalida: " + termo);
+            }
+        } else if (TextoUtils.dobrar(termo).isBlank()) {
+            // So marcas combinantes: o termo dobrado casaria com qualquer mensagem.
+            throw new RuntimeException("Termo da regra fica vazio sem acentos: " + termo);
+        }
+        regra.setTermo(termo);
+        regra.setExpressaoRegular(dto.isRegex());
+        regra.setTipo(dto.getTipo().trim());
+        regra.setNivelRisco(dto.getNivelRisco());
+        if (dto.getAtivo() != null) {
+            regra.setAtivo(dto.getAtivo());
+        }
+    }
+
+    private RegraModeracaoDTO toDTO(RegraModeracao regra) {
+        RegraModeracaoDTO dto = new RegraModeracaoDTO(regra.getTermo(), regra.getTipo(), regra.getNivelRisco(), regra.isExpressaoRegular());
+        dto.setId(regra.getId());
+        dto.setAtivo(regra.isAtivo());
+        dto.setVersao(regra.getVersao());
+        LongAdder contador = ocorrencias.get(regra.getId());
+        dto.setOcorrencias(contador != null ? contador.sum() : 0);
+        return dto;
+    }
+
+    // regraId identifica a regra que disparou; palavra e o termo ou o trecho casado pela expressao.
+    public record Deteccao(String regraId, String palavra, String tipo, NivelRiscoModeracao risco) {}
+
+    private record Conjunto(MotorModeracao motor, List<MotorModeracao.Regra> regras, String assinatura) {}
+}
@@ -0,0 +1,200 @@
+package com.metalSpring.services;
+
+import com.metalSpring.model.enums.NivelRiscoModeracao;
+import com.metalSpring.util.TextoUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Conjunto de regras de moderacao compilado e imutavel.
+ *
+ * Os termos viram um automato de Aho-Corasick percorrido uma unica vez por
+ * mensagem, dobrando acentos e maiusculas caractere a caractere em vez de
+ * normalizar o texto inteiro. As transicoes ficam em vetores (por estado, um
+ * intervalo de rotulos ordenados para busca binaria) e as saidas de cada
+ * estado ja incluem as do seu link de falha. Regras de expressao regular sao
+ * avaliadas a parte, sobre o texto original.
+ */
+final class MotorModeracao {
+
+    private final Regra[] termos;
+    private final Regra[] expressoes;
+
+    private final int[] inicioTransicoes;
+    private final char[] rotulos;
+    private final int[] destinos;
+    private final int[] falha;
+    private final int[] inicioSaidas;
+    private final int[] saidas;
+
+    private MotorModeracao(Regra[] termos, Regra[] expressoes, int[] inicioTransicoes, char[] rotulos,
+                           int[] destinos, int[] falha, int[] inicioSaidas, int[] saidas) {
+        this.termos = termos;
+        this.expressoes = expressoes;
+        this.inicioTransicoes = inicioTransicoes;
+        this.rotulos = rotulos;
+        this.destinos = destinos;
+        this.falha = falha;
+        this.inicioSaidas = inicioSaidas;
+        this.saidas = saidas;
+    }
+
+    static MotorModeracao compilar(List<Regra> regras) {
+        List<Regra> termos = new ArrayList<>();
+        List<Regra> expressoes = new ArrayList<>();
+        for (Regra regra : regras) {
+            (regra.padrao() != null ? expressoes : termos).add(regra);
+        }
+
+        // Trie com filhos ordenados por rotulo.
+        List<TreeMap<Character, Integer>> filhos = new ArrayList<>();
+        List<List<Integer>> saidasPorEstado = new ArrayList<>();
+        filhos.add(new TreeMap<>());
+        saidasPorEstado.add(new ArrayList<>());
+        for (int indice = 0; indice < termos.size(); indice++) {
+            int estado = 0;
+            String termo = termos.get(indice).termo();
+            for (int i = 0; i < termo.length(); i++) {
+                char c = TextoUtils.dobrar(termo.charAt(i));
+                if (c == '\0') {
+                    continue;
+                }
+                Integer proximo = filhos.get(estado).get(c);
+                if (proximo == null) {
+                    proximo = filhos.size();
+                    filhos.add(new TreeMap<>());
+                    saidasPorEstado.add(new ArrayList<>());
+                    filhos.get(estado).put(c, proximo);
+                }
+                estado = proximo;
+            }
+            // Termo vazio depois de dobrado sairia no estado raiz, em todo caractere.
+            if (estado != 0) {
+                saidasPorEstado.get(estado).add(indice);
+            }
+        }
+
+        int total = filhos.size();
+        int[] inicioTransicoes = new int[total + 1];
+        for (int estado = 0; estado < total; estado++) {
+            inicioTransicoes[estado + 1] = inicioTransicoes[estado] + filhos.get(estado).size();
+        }
+        char[] rotulos = new char[inicioTransicoes[total]];
+        int[] destinos = new int[inicioTransicoes[total]];
+        for (int estado = 0; estado < total; estado++) {
+            int posicao = inicioTransicoes[estado];
+            for (Map.Entry<Character, Integer> filho : filhos.get(estado).entrySet()) {
+                rotulos[posicao] = filho.getKey();
+                destinos[posicao++] = filho.getValue();
+            }
+        }
+
+        // Links de falha em largura; cada estado herda as saidas do seu link.
+        int[] falha = new int[total];
+        ArrayDeque<Integer> fila = new ArrayDeque<>(filhos.get(0).values());
+        while (!fila.isEmpty()) {
+            int estado = fila.poll();
+            for (Map.Entry<Character, Integer> filho : filhos.get(estado).entrySet()) {
+                int destino = filho.getValue();
+                int anterior = falha[estado];
+                int alvo;
+                while ((alvo = transicao(inicioTransicoes, rotulos, destinos, anterior, filho.getKey())) < 0 && anterior != 0) {
+                    anterior = falha[anterior];
+                }
+                falha[destino] = alvo >= 0 ? alvo : 0;
+                saidasPorEstado.get(destino).addAll(saidasPorEstado.get(falha[destino]));
+                fila.add(destino);
+            }
+        }
+
+        int[] inicioSaidas = new int[total + 1];
+        for (int estado = 0; estado < total; estado++) {
+            inicioSaidas[estado + 1] = inicioSaidas[estado] + saidasPorEstado.get(estado).size();
+        }
+        int[] saidas = new int[inicioSaidas[total]];
+        for (int estado = 0; estado < total; estado++) {
+            int posicao = inicioSaidas[estado];
+            for (Integer indice : saidasPorEstado.get(estado)) {
+                saidas[posicao++] = indice;
+            }
+        }
+
+        return new MotorModeracao(termos.toArray(new Regra[0]), expressoes.toArray(new Regra[0]),
+                inicioTransicoes, rotulos, destinos, falha, inicioSaidas, saidas);
+    }
+
+    /**
+     * Deteccoes da mensagem: cada termo no maximo uma vez, na ordem em que aparece,
+     * seguido de cada ocorrencia das expressoes regulares.
+     */
+    List<ModeracaoService.Deteccao> detectar(String conteudo) {
+        List<ModeracaoService.Deteccao> deteccoes = new ArrayList<>();
+        if (conteudo == null || conteudo.isEmpty()) {
+            return deteccoes;
+        }
+
+        long[] vistos = null;
+        int estado = 0;
+        for (int i = 0; i < conteudo.length(); i++) {
+            char c = TextoUtils.dobrar(conteudo.charAt(i));
+            if (c == '\0') {
+                continue;
+            }
+            int proximo;
+            while ((proximo = transicao(inicioTransicoes, rotulos, destinos, estado, c)) < 0 && estado != 0) {
+                estado = falha[estado];
+            }
+            estado = Math.max(proximo, 0);
+            for (int k = inicioSaidas[estado]; k < inicioSaidas[estado + 1]; k++) {
+                int indice = saidas[k];
+                if (vistos == null) {
+                    vistos = new long[(termos.length + 63) >>> 6];
+                }
+                if ((vistos[indice >>> 6] & (1L << indice)) == 0) {
+                    vistos[indice >>> 6] |= 1L << indice;
+                    Regra regra = termos[indice];
+                    regra.ocorrencias().increment();
+                    deteccoes.add(new ModeracaoService.Deteccao(regra.id(), regra.termo(), regra.tipo(), regra.risco()));
+                }
+            }
+        }
+
+        for (Regra regra : expressoes) {
+            Matcher matcher = regra.padrao().matcher(conteudo);
+            while (matcher.find()) {
+                regra.ocorrencias().increment();
+                deteccoes.add(new ModeracaoService.Deteccao(regra.id(), matcher.group().trim(), regra.tipo(), regra.risco()));
+            }
+        }
+        return deteccoes;
+    }
+
+    private static int transicao(int[] inicio, char[] rotulos, int[] destinos, int estado, char c) {
+        int baixo = inicio[estado];
+        int alto = inicio[estado + 1] - 1;
+        while (baixo <= alto) {
+            int meio = (baixo + alto) >>> 1;
+            char rotulo = rotulos[meio];
+            if (rotulo < c) {
+                baixo = meio + 1;
+            } else if (rotulo > c) {
+                alto = meio - 1;
+            } else {
+                return destinos[meio];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Regra compilada. {@code padrao} so e preenchido nas regras de expressao regular.
+     */
+    record Regra(String id, String termo, String tipo, NivelRiscoModeracao risco, Pattern padrao, LongAdder ocorrencias) {}
+}
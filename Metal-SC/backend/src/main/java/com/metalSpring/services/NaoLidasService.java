@@ -0,0 +1,134 @@
+package com.metalSpring.services;
+
+import com.metalSpring.model.entity.ContadorNaoLidas;
+import com.metalSpring.repository.ContadorNaoLidasRepository;
+import com.metalSpring.repository.MensagemNegociacaoRepository;
+import com.metalSpring.util.TransacaoUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Contadores de mensagens nao lidas por usuario e conversa.
+ *
+ * A tabela contadores_nao_lidas so tem linhas para conversas com mensagens
+ * pendentes e e atualizada na mesma transacao da mensagem; o mapa em memoria
+ * e um espelho completo dela, ajustado apos o commit, e atende as leituras
+ * do badge e da lista de notificacoes sem consultar o banco.
+ */
+@Service
+public class NaoLidasService {
+
+    private static final Logger log = LoggerFactory.getLogger(NaoLidasService.class);
+
+    @Autowired
+    private ContadorNaoLidasRepository contadorRepository;
+
+    @Autowired
+    private MensagemNegociacaoRepository mensagemRepository;
+
+    private final Map<String, Map<String, Long>> porUsuario = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void carregar() {
+        if (contadorRepository.count() == 0) {
+            // Primeira subida com a tabela: reconstroi a partir das mensagens.
+            List<ContadorNaoLidas> contadores = new ArrayList<>();
+            for (Object[] linha : mensagemRepository.contarNaoLidasPorDestinatarioEConversa()) {
+                contadores.add(new ContadorNaoLidas((String) linha[0], (String) linha[1], (Long) linha[2]));
+            }
+            contadorRepository.saveAll(contadores);
+        }
+
+        porUsuario.clear();
+        for (ContadorNaoLidas contador : contadorRepository.findAll()) {
+            if (contador.getQuantidade() > 0) {
+                ajustarMemoria(contador.getId().getUsuarioId(), contador.getId().getConversaId(), contador.getQuantidade());
+            }
+        }
+        log.info("Contadores de nao lidas carregados para {} usuarios", porUsuario.size());
+    }
+
+    @Transactional
+    public void incrementar(String usuarioId, String conversaId) {
+        contadorRepository.somar(usuarioId, conversaId, 1);
+        TransacaoUtils.aposCommit(() -> ajustarMemoria(usuarioId, conversaId, 1));
+    }
+
+    @Transactional
+    public void decrementar(String usuarioId, String conversaId, long quantidade) {
+        if (quantidade <= 0) {
+            return;
+        }
+        contadorRepository.subtrair(usuarioId, conversaId, quantidade);
+        contadorRepository.removerSeZerado(usuarioId, conversaId);
+        TransacaoUtils.aposCommit(() -> ajustarMemoria(usuarioId, conversaId, -quantidade));
+    }
+
+    /**
+     * Apaga o contador da conversa. A memoria recebe o valor apagado como
+     * delta, e nao uma remocao, para nao perder um incremento concorrente
+     * cujo ajuste rode antes deste.
+     */
+    @Transactional
+    public void zerar(String usuarioId, String conversaId) {
+        Long quantidade = contadorRepository.travarQuantidade(usuarioId, conversaId);
+        if (quantidade == null) {
+            return;
+        }
+        contadorRepository.zerar(usuarioId, conversaId);
+        if (quantidade > 0) {
+            TransacaoUtils.aposCommit(() -> ajustarMemoria(usuarioId, conversaId, -quantidade));
+        }
+    }
+
+    @Transactional
+    public void removerConversa(String conversaId) {
+        contadorRepository.removerConversa(conversaId);
+        TransacaoUtils.aposCommit(() -> porUsuario.replaceAll((id, conversas) -> {
+            conversas.remove(conversaId);
+            return conversas;
+        }));
+    }
+
+    public long total(String usuarioId) {
+        Map<String, Long> conversas = porUsuario.get(usuarioId);
+        if (conversas == null) {
+            return 0;
+        }
+        long total = 0;
+        for (Long quantidade : conversas.values()) {
+            total += quantidade;
+        }
+        return total;
+    }
+
+    /**
+     * Nao lidas por conversa do usuario, apenas das conversas com pendencias.
+     */
+    public Map<String, Long> porConversa(String usuarioId) {
+        Map<String, Long> conversas = porUsuario.get(usuarioId);
+        return conversas == null ? Map.of() : Map.copyOf(conversas);
+    }
+
+    private void ajustarMemoria(String usuarioId, String conversaId, long delta) {
+        porUsuario.compute(usuarioId, (id, conversas) -> {
+            Map<String, Long> mapa = conversas != null ? conversas : new ConcurrentHashMap<>();
+            mapa.compute(conversaId, (c, atual) -> {
+                long novo = (atual != null ? atual : 0) + delta;
+                return novo > 0 ? novo : null;
+            });
+            return mapa.isEmpty() ? null : mapa;
+        });
+    }
+}
@@ -1,9 +1,12 @@
 package com.metalSpring.services;
 
 import com.metalSpring.model.dto.AlertaModeracaoDTO;
+import com.metalSpring.model.dto.EventoNegociacaoDTO;
 import com.metalSpring.model.dto.NegociacaoConversaDTO;
 import com.metalSpring.model.dto.NegociacaoMensagemDTO;
+import com.metalSpring.model.dto.NegociacaoResumoDTO;
 import com.metalSpring.model.dto.NotificacaoDTO;
+import com.metalSpring.model.dto.PaginaDTO;
 import com.metalSpring.model.entity.AlertaModeracao;
 import com.metalSpring.model.entity.Cliente;
 import com.metalSpring.model.entity.ConversaNegociacao;
@@ -17,6 +20,7 @@ import com.metalSpring.model.enums.NegociacaoStatus;
 import com.metalSpring.model.enums.NivelRiscoModeracao;
 import com.metalSpring.model.enums.PagamentoStatus;
 import com.metalSpring.model.enums.PedidoStatus;
+import com.metalSpring.model.enums.TipoEventoPedido;
 import com.metalSpring.model.enums.TipoMensagemNegociacao;
 import com.metalSpring.repository.AlertaModeracaoRepository;
 import com.metalSpring.repository.ClienteRepository;
@@ -25,19 +29,18 @@ import com.metalSpring.repository.MensagemNegociacaoRepository;
 import com.metalSpring.repository.PedidoRepository;
 import com.metalSpring.repository.PecaRepository;
 import com.metalSpring.repository.UsuarioRepository;
-import java.text.Normalizer;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -65,29 +68,34 @@ public class NegociacaoService {
     @Autowired
     private UsuarioRepository usuarioRepository;
 
-    private static final List<RegraModeracao> REGRAS = List.of(
-            new RegraModeracao("whatsapp", "aplicativo externo", NivelRiscoModeracao.ALTO),
-            new RegraModeracao("wa.me", "link externo", NivelRiscoModeracao.ALTO),
-            new RegraModeracao("telegram", "aplicativo externo", NivelRiscoModeracao.ALTO),
-            new RegraModeracao("instagram", "rede social", NivelRiscoModeracao.ALTO),
-            new RegraModeracao("direct", "contato externo", NivelRiscoModeracao.MEDIO),
-            new RegraModeracao("me chama", "contato externo", NivelRiscoModeracao.MEDIO),
-            new RegraModeracao("chama no zap", "contato externo", NivelRiscoModeracao.ALTO),
-            new RegraModeracao("meu numero e", "telefone", NivelRiscoModeracao.ALTO),
-            new RegraModeracao("telefone", "telefone", NivelRiscoModeracao.MEDIO),
-            new RegraModeracao("gmail", "email", NivelRiscoModeracao.MEDIO),
-            new RegraModeracao("hotmail", "email", NivelRiscoModeracao.MEDIO),
-            new RegraModeracao("outlook", "email", NivelRiscoModeracao.MEDIO),
-            new RegraModeracao("discord", "aplicativo externo", NivelRiscoModeracao.ALTO),
-            new RegraModeracao("pix", "pagamento externo", NivelRiscoModeracao.ALTO),
-            new RegraModeracao("qr code", "qr code textual", NivelRiscoModeracao.ALTO),
-            new RegraModeracao("qrcode", "qr code textual", NivelRiscoModeracao.ALTO)
-    );
-
-    private static final Pattern EMAIL = Pattern.compile("[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}");
-    private static final Pattern URL = Pattern.compile("(https?://\\S+|www\\.\\S+|\\S+\\.com\\S*)", Pattern.CASE_INSENSITIVE);
-    private static final Pattern USUARIO_EXTERNO = Pattern.compile("(^|\\s)@[\\w._-]{3,}");
-    private static final Pattern TELEFONE = Pattern.compile("(?<!\\d)(?:\\+?55\\s*)?(?:\\(?\\d{2}\\)?\\s*)?9?\\d{4}[-\\s.]?\\d{4}(?!\\d)");
+    @Autowired
+    private EventosNegociacaoService eventosNegociacaoService;
+
+    @Autowired
+    private NaoLidasService naoLidasService;
+
+    @Autowired
+    private FilaModeracaoService filaModeracaoService;
+
+    @Autowired
+    private InfracoesService infracoesService;
+
+    @Autowired
+    private EstatisticasModeracaoService estatisticasModeracaoService;
+
+    @Autowired
+    private AlertasModeracaoService alertasModeracaoService;
+
+    @Autowired
+    private EventosPedidoService eventosPedidoService;
+
+    @Autowired
+    private TransicoesPedidoService transicoesPedidoService;
+
+    private static final int LIMITE_MENSAGENS_PADRAO = 50;
+    private static final int LIMITE_MENSAGENS_MAXIMO = 200;
+    private static final int LIMITE_ALERTAS_PADRAO = 50;
+    private static final int LIMITE_ALERTAS_MAXIMO = 200;
 
     @Transactional
     public NegociacaoConversaDTO iniciar(String pecaId, String clienteId, String conteudo, Double valorProposto) {
@@ -125,12 +133,11 @@ public class NegociacaoService {
         conversa.setValorNegociado(pedido.getValorTotal());
         conversa.setStatus(NegociacaoStatus.EM_NEGOCIACAO);
         ConversaNegociacao salva = conversaRepository.save(conversa);
-        pedido.registrarEvento("Chat de negociacao aberto: " + salva.getId());
-        pedidoRepository.save(pedido);
+        eventosPedidoService.registrar(pedido.getId(), TipoEventoPedido.CHAT_ABERTO, "Chat de negociacao aberto: " + salva.getId());
 
         Usuario cliente = pedido.getCliente();
         Usuario revendedor = pedido.getVendedor();
-        mensagemRepository.save(criarMensagem(
+        salvarMensagem(criarMensagem(
                 salva,
                 cliente,
                 revendedor,
@@ -167,22 +174,88 @@ public class NegociacaoService {
                 .orElseThrow(() -> new RuntimeException("Conversa nao encontrada"));
     }
 
-    public List<NegociacaoConversaDTO> listarPorCliente(String clienteId) {
-        return conversaRepository.findByClienteIdOrderByAtualizadaEmDesc(clienteId).stream()
-                .filter(conversa -> !Boolean.TRUE.equals(conversa.getOcultaParaCliente()))
-                .map(conversa -> toConversaDTO(conversa, clienteId))
-                .toList();
+    public List<NegociacaoResumoDTO> listarPorCliente(String clienteId) {
+        return completarResumos(conversaRepository.listarResumoPorCliente(clienteId), clienteId);
     }
 
-    public List<NegociacaoConversaDTO> listarPorRevendedor(String revendedorId) {
-        return conversaRepository.findByRevendedorIdOrderByAtualizadaEmDesc(revendedorId).stream()
-                .filter(conversa -> !Boolean.TRUE.equals(conversa.getOcultaParaRevendedor()))
-                .map(conversa -> toConversaDTO(conversa, revendedorId))
-                .toList();
+    public List<NegociacaoResumoDTO> listarPorRevendedor(String revendedorId) {
+        return completarResumos(conversaRepository.listarResumoPorRevendedor(revendedorId), revendedorId);
+    }
+
+    // Nao lidas e ultima mensagem de todas as conversas da lista em duas consultas agrupadas.
+    private List<NegociacaoResumoDTO> completarResumos(List<NegociacaoResumoDTO> resumos, String usuarioId) {
+        if (resumos.isEmpty()) {
+            return resumos;
+        }
+        Map<String, NegociacaoResumoDTO> porId = new LinkedHashMap<>();
+        resumos.forEach(resumo -> porId.put(resumo.getId(), resumo));
+
+        for (Object[] linha : mensagemRepository.contarNaoLidasPorConversa(porId.keySet(), usuarioId)) {
+            porId.get((String) linha[0]).setNaoLidas((Long) linha[1]);
+        }
+        for (Object[] linha : mensagemRepository.findUltimasMensagens(porId.keySet())) {
+            NegociacaoResumoDTO resumo = porId.get((String) linha[0]);
+            if (resumo.getUltimaMensagemId() != null) {
+                continue;
+            }
+            resumo.setUltimaMensagemId((String) linha[1]);
+            resumo.setUltimaMensagemRemetenteId((String) linha[2]);
+            resumo.setUltimaMensagemTrecho(truncarTrecho((String) linha[3]));
+            resumo.setUltimaMensagemData((LocalDateTime) linha[4]);
+            resumo.setUltimaMensagemTipo((TipoMensagemNegociacao) linha[5]);
+        }
+        return resumos;
     }
 
     public NegociacaoConversaDTO obter(String conversaId, String visualizadorId) {
-        return toConversaDTO(buscarConversa(conversaId), visualizadorId);
+        return obter(conversaId, visualizadorId, true);
+    }
+
+    public NegociacaoConversaDTO obter(String conversaId, String visualizadorId, boolean incluirMensagens) {
+        return toConversaDTO(buscarConversa(conversaId), visualizadorId, incluirMensagens);
+    }
+
+    /**
+     * Pagina de mensagens da conversa, sempre em ordem cronologica. Com depoisDe traz as
+     * mensagens seguintes a essa (para o polling), com antesDe as anteriores (historico) e
+     * sem nenhum dos dois as mais recentes. O proximoCursor e o id da mensagem de onde
+     * continuar na mesma direcao.
+     */
+    public PaginaDTO<NegociacaoMensagemDTO> listarMensagens(String conversaId, String antesDe, String depoisDe, Integer limite) {
+        if (antesDe != null && depoisDe != null) {
+            throw new RuntimeException("Informe apenas antesDe ou depoisDe");
+        }
+        if (!conversaRepository.existsById(conversaId)) {
+            throw new RuntimeException("Conversa nao encontrada");
+        }
+        int tamanho = limite == null || limite <= 0 ? LIMITE_MENSAGENS_PADRAO : Math.min(limite, LIMITE_MENSAGENS_MAXIMO);
+        PageRequest pagina = PageRequest.of(0, tamanho + 1);
+
+        List<MensagemNegociacao> mensagens;
+        boolean avancando = depoisDe != null;
+        if (avancando) {
+            mensagens = mensagemRepository.findDepoisDe(conversaId, dataDaMensagem(conversaId, depoisDe), depoisDe, pagina);
+        } else if (antesDe != null) {
+            mensagens = mensagemRepository.findAntesDe(conversaId, dataDaMensagem(conversaId, antesDe), antesDe, pagina);
+        } else {
+            mensagens = mensagemRepository.findRecentes(conversaId, pagina);
+        }
+
+        boolean temMais = mensagens.size() > tamanho;
+        List<MensagemNegociacao> itens = new ArrayList<>(temMais ? mensagens.subList(0, tamanho) : mensagens);
+        if (!avancando) {
+            Collections.reverse(itens);
+        }
+        String proximoCursor = null;
+        if (temMais) {
+            proximoCursor = avancando ? itens.get(itens.size() - 1).getId() : itens.get(0).getId();
+        }
+        return new PaginaDTO<>(itens.stream().map(this::toMensagemDTO).toList(), proximoCursor, temMais);
+    }
+
+    private LocalDateTime dataDaMensagem(String conversaId, String mensagemId) {
+        return mensagemRepository.findDataEnvio(conversaId, mensagemId)
+                .orElseThrow(() -> new RuntimeException("Mensagem nao encontrada"));
     }
 
     @Transactional
@@ -209,6 +282,13 @@ public class NegociacaoService {
                     : TipoMensagemNegociacao.PROPOSTA;
         }
 
+        // Depois do pagamento informado o pedido nao volta para negociacao.
+        if (valorProposto != null && conversa.getPedido() != null
+                && !conversa.getPedido().getStatus().permite(PedidoStatus.AGUARDANDO_NEGOCIACAO)) {
+            throw new RuntimeException("Pedido ja esta em " + conversa.getPedido().getStatus()
+                    + "; nao e possivel enviar novas propostas");
+        }
+
         MensagemNegociacao mensagem = criarMensagem(conversa, remetente, destinatario, conteudo, valorProposto, tipoAplicado);
         if (valorProposto != null) {
             conversa.setValorNegociado(valorProposto);
@@ -218,13 +298,16 @@ public class NegociacaoService {
             conversa.setDataAprovacaoRevendedor(null);
             if (conversa.getPedido() != null) {
                 Pedido pedido = conversa.getPedido();
+                transicoesPedidoService.transicionar(pedido.getId(), PedidoStatus.AGUARDANDO_NEGOCIACAO,
+                        PagamentoStatus.BLOQUEADO_AGUARDANDO_NEGOCIACAO);
                 pedido.setAprovacaoCliente(false);
                 pedido.setAprovacaoRevendedor(false);
                 pedido.setDataAprovacaoCliente(null);
                 pedido.setDataAprovacaoRevendedor(null);
                 pedido.setStatus(PedidoStatus.AGUARDANDO_NEGOCIACAO);
                 pedido.setStatusPagamento(PagamentoStatus.BLOQUEADO_AGUARDANDO_NEGOCIACAO);
-                pedido.registrarEvento("Nova proposta enviada por " + remetenteId + " no valor " + valorProposto);
+                eventosPedidoService.registrar(pedido.getId(), TipoEventoPedido.PROPOSTA_ENVIADA, remetenteId,
+                        "Nova proposta enviada por " + remetenteId + " no valor " + valorProposto);
                 pedidoRepository.save(pedido);
             }
         }
@@ -233,9 +316,11 @@ public class NegociacaoService {
         conversa.tocar();
         conversaRepository.save(conversa);
 
-        MensagemNegociacao salva = mensagemRepository.save(mensagem);
-        verificarModeracao(salva);
-        return toMensagemDTO(salva);
+        MensagemNegociacao salva = salvarMensagem(mensagem);
+        filaModeracaoService.enfileirar(salva);
+        NegociacaoMensagemDTO dto = toMensagemDTO(salva);
+        publicarEvento("mensagem", conversa, dto);
+        return dto;
     }
 
     @Transactional
@@ -275,18 +360,21 @@ public class NegociacaoService {
             pedido.setDataAprovacaoCliente(conversa.getDataAprovacaoCliente());
             pedido.setDataAprovacaoRevendedor(conversa.getDataAprovacaoRevendedor());
             pedido.setValorFinalNegociado(conversa.getValorFinalAcordado());
-            pedido.registrarEvento("Negociacao aprovada por " + usuarioId + ". Valor atual: "
+            eventosPedidoService.registrar(pedido.getId(), TipoEventoPedido.NEGOCIACAO_APROVADA, usuarioId,
+                    "Negociacao aprovada por " + usuarioId + ". Valor atual: "
                     + (conversa.getValorNegociado() != null ? conversa.getValorNegociado() : conversa.getValorOriginal()));
             if (aprovado) {
+                transicoesPedidoService.transicionar(pedido.getId(), PedidoStatus.PAGAMENTO_LIBERADO,
+                        PagamentoStatus.PAGAMENTO_PENDENTE);
                 pedido.setStatus(PedidoStatus.PAGAMENTO_LIBERADO);
                 pedido.setStatusPagamento(PagamentoStatus.PAGAMENTO_PENDENTE);
-                pedido.registrarEvento("Aprovacao dupla concluida. Pagamento liberado no valor "
-                        + pedido.getValorFinalNegociado());
+                eventosPedidoService.registrar(pedido.getId(), TipoEventoPedido.APROVACAO_DUPLA, usuarioId,
+                        "Aprovacao dupla concluida. Pagamento liberado no valor " + pedido.getValorFinalNegociado());
             }
             pedidoRepository.save(pedido);
         }
 
-        mensagemRepository.save(criarMensagem(
+        MensagemNegociacao mensagem = salvarMensagem(criarMensagem(
                 conversa,
                 usuario,
                 destinatario,
@@ -294,6 +382,7 @@ public class NegociacaoService {
                 conversa.getValorNegociado(),
                 TipoMensagemNegociacao.APROVACAO
         ));
+        publicarEvento("aprovacao", conversa, toMensagemDTO(mensagem));
         return toConversaDTO(conversa, usuarioId);
     }
 
@@ -306,7 +395,7 @@ public class NegociacaoService {
         conversa.setStatus(NegociacaoStatus.FECHADO);
         conversa.tocar();
         conversaRepository.save(conversa);
-        return toMensagemDTO(mensagemRepository.save(criarMensagem(
+        NegociacaoMensagemDTO dto = toMensagemDTO(salvarMensagem(criarMensagem(
                 conversa,
                 remetente,
                 destinatario,
@@ -314,6 +403,8 @@ public class NegociacaoService {
                 conversa.getValorNegociado(),
                 TipoMensagemNegociacao.ACEITE
         )));
+        publicarEvento("aceite", conversa, dto);
+        return dto;
     }
 
     @Transactional
@@ -325,7 +416,7 @@ public class NegociacaoService {
         conversa.setStatus(NegociacaoStatus.EM_NEGOCIACAO);
         conversa.tocar();
         conversaRepository.save(conversa);
-        return toMensagemDTO(mensagemRepository.save(criarMensagem(
+        NegociacaoMensagemDTO dto = toMensagemDTO(salvarMensagem(criarMensagem(
                 conversa,
                 remetente,
                 destinatario,
@@ -333,6 +424,8 @@ public class NegociacaoService {
                 conversa.getValorNegociado(),
                 TipoMensagemNegociacao.RECUSA
         )));
+        publicarEvento("recusa", conversa, dto);
+        return dto;
     }
 
     @Transactional
@@ -347,7 +440,7 @@ public class NegociacaoService {
         conversa.setStatus(status);
         conversa.tocar();
         conversaRepository.save(conversa);
-        mensagemRepository.save(criarMensagem(
+        MensagemNegociacao mensagem = salvarMensagem(criarMensagem(
                 conversa,
                 usuario,
                 destinatario,
@@ -355,6 +448,7 @@ public class NegociacaoService {
                 conversa.getValorNegociado(),
                 TipoMensagemNegociacao.SISTEMA
         ));
+        publicarEvento("encerramento", conversa, toMensagemDTO(mensagem));
         return toConversaDTO(conversa, usuarioId);
     }
 
@@ -390,6 +484,7 @@ public class NegociacaoService {
                 alerta.setMensagem(null);
             });
             alertaRepository.saveAll(alertas);
+            naoLidasService.removerConversa(conversaId);
             conversaRepository.delete(conversa);
         } else {
             conversaRepository.save(conversa);
@@ -421,52 +516,63 @@ public class NegociacaoService {
         alerta.setTipoInfracao("Denuncia do " + (ehCliente ? "cliente" : "revendedor"));
         alerta.setNivelRisco(NivelRiscoModeracao.ALTO);
         alerta.setDenunciaManual(true);
-        return toAlertaDTO(alertaRepository.save(alerta));
+        AlertaModeracao salvo = alertasModeracaoService.criar(alerta);
+        return toAlertaDTO(salvo);
     }
 
     @Transactional
-    public void marcarComoLidas(String conversaId, String usuarioId) {
-        List<MensagemNegociacao> mensagens = mensagemRepository.findByConversaIdAndDestinatarioIdAndLidaFalse(conversaId, usuarioId);
-        mensagens.forEach(mensagem -> mensagem.setLida(true));
-        mensagemRepository.saveAll(mensagens);
+    public int marcarComoLidas(String conversaId, String usuarioId) {
+        return marcarComoLidas(conversaId, usuarioId, null);
+    }
+
+    /**
+     * Marca como lidas as mensagens recebidas pelo usuario na conversa, todas ou
+     * apenas ate a mensagem informada (inclusive), em um unico UPDATE.
+     * Retorna quantas mensagens mudaram.
+     */
+    @Transactional
+    public int marcarComoLidas(String conversaId, String usuarioId, String ateMensagemId) {
+        if (ateMensagemId == null || ateMensagemId.isBlank()) {
+            int atualizadas = mensagemRepository.marcarTodasComoLidas(conversaId, usuarioId);
+            naoLidasService.zerar(usuarioId, conversaId);
+            return atualizadas;
+        }
+        int atualizadas = mensagemRepository.marcarComoLidasAte(
+                conversaId, usuarioId, dataDaMensagem(conversaId, ateMensagemId), ateMensagemId);
+        naoLidasService.decrementar(usuarioId, conversaId, atualizadas);
+        return atualizadas;
     }
 
     public long contarNotificacoes(String usuarioId) {
-        return mensagemRepository.countByDestinatarioIdAndLidaFalseAndRemovidaFalse(usuarioId);
+        return naoLidasService.total(usuarioId);
     }
 
+    // Uma consulta so, limitada as conversas que os contadores apontam como pendentes.
     public List<NotificacaoDTO> listarNotificacoes(String usuarioId) {
-        List<MensagemNegociacao> naoLidas =
-                mensagemRepository.findByDestinatarioIdAndLidaFalseAndRemovidaFalseOrderByDataEnvioDesc(usuarioId);
-
-        Map<String, List<MensagemNegociacao>> porConversa = naoLidas.stream()
-                .collect(Collectors.groupingBy(
-                        mensagem -> mensagem.getConversa().getId(),
-                        LinkedHashMap::new,
-                        Collectors.toList()
-                ));
-
-        List<NotificacaoDTO> notificacoes = new ArrayList<>();
-        for (Map.Entry<String, List<MensagemNegociacao>> entry : porConversa.entrySet()) {
-            List<MensagemNegociacao> mensagensDaConversa = entry.getValue();
-            MensagemNegociacao maisRecente = mensagensDaConversa.get(0);
+        Map<String, Long> naoLidas = naoLidasService.porConversa(usuarioId);
+        if (naoLidas.isEmpty()) {
+            return List.of();
+        }
 
+        Map<String, NotificacaoDTO> porConversa = new LinkedHashMap<>();
+        for (Object[] linha : mensagemRepository.findUltimasNaoLidas(usuarioId, naoLidas.keySet())) {
+            String conversaId = (String) linha[0];
+            if (porConversa.containsKey(conversaId)) {
+                continue;
+            }
             NotificacaoDTO dto = new NotificacaoDTO();
-            dto.setConversaId(entry.getKey());
-            dto.setMensagemId(maisRecente.getId());
-            dto.setPecaNome(
-                    maisRecente.getConversa().getPeca() != null
-                            ? maisRecente.getConversa().getPeca().getNome()
-                            : null
-            );
-            dto.setRemetenteNome(
-                    maisRecente.getRemetente() != null ? maisRecente.getRemetente().getNome() : null
-            );
-            dto.setTrechoMensagem(truncarTrecho(maisRecente.getConteudo()));
-            dto.setDataEnvio(maisRecente.getDataEnvio());
-            dto.setNaoLidas(mensagensDaConversa.size());
-            notificacoes.add(dto);
+            dto.setConversaId(conversaId);
+            dto.setMensagemId((String) linha[1]);
+            dto.setPecaNome((String) linha[2]);
+            dto.setRemetenteNome((String) linha[3]);
+            dto.setTrechoMensagem(truncarTrecho((String) linha[4]));
+            dto.setDataEnvio((LocalDateTime) linha[5]);
+            dto.setNaoLidas(naoLidas.get(conversaId));
+            porConversa.put(conversaId, dto);
         }
+
+        List<NotificacaoDTO> notificacoes = new ArrayList<>(porConversa.values());
+        notificacoes.sort(Comparator.comparing(NotificacaoDTO::getDataEnvio).reversed());
         return notificacoes;
     }
 
@@ -476,47 +582,91 @@ public class NegociacaoService {
         return trimmed.length() > 80 ? trimmed.substring(0, 80).trim() + "..." : trimmed;
     }
 
-    public List<AlertaModeracaoDTO> listarAlertas(String usuarioId, String data, String tipo, AlertaModeracaoStatus status) {
-        List<AlertaModeracao> alertas;
-        if (usuarioId != null && !usuarioId.isBlank()) {
-            alertas = alertaRepository.findByUsuarioIdOrderByDataHoraDesc(usuarioId);
-        } else if (data != null && !data.isBlank()) {
+    public List<AlertaModeracaoDTO> listarAlertas(String usuarioId, String data, String tipo,
+                                                  AlertaModeracaoStatus status, NivelRiscoModeracao risco) {
+        return toAlertaDTOs(buscarAlertas(usuarioId, data, tipo, status, risco, null, Pageable.unpaged()));
+    }
+
+    /**
+     * Pagina de alertas com os filtros combinados, do mais recente para o mais antigo.
+     * O cursor e o id do ultimo alerta da pagina anterior.
+     */
+    public PaginaDTO<AlertaModeracaoDTO> listarAlertasPaginado(String usuarioId, String data, String tipo,
+                                                               AlertaModeracaoStatus status, NivelRiscoModeracao risco,
+                                                               String cursor, Integer limite) {
+        int tamanho = limite == null || limite <= 0 ? LIMITE_ALERTAS_PADRAO : Math.min(limite, LIMITE_ALERTAS_MAXIMO);
+        List<AlertaModeracao> alertas = buscarAlertas(usuarioId, data, tipo, status, risco, cursor, PageRequest.of(0, tamanho + 1));
+        boolean temMais = alertas.size() > tamanho;
+        List<AlertaModeracao> itens = temMais ? alertas.subList(0, tamanho) : alertas;
+        String proximoCursor = temMais ? itens.get(itens.size() - 1).getId() : null;
+        return new PaginaDTO<>(toAlertaDTOs(itens), proximoCursor, temMais);
+    }
+
+    private List<AlertaModeracao> buscarAlertas(String usuarioId, String data, String tipo, AlertaModeracaoStatus status,
+                                                NivelRiscoModeracao risco, String cursor, Pageable pageable) {
+        LocalDateTime inicio = null;
+        LocalDateTime fim = null;
+        if (data != null && !data.isBlank()) {
             LocalDate parsed = LocalDate.parse(data);
-            alertas = alertaRepository.findByDataHoraBetweenOrderByDataHoraDesc(parsed.atStartOfDay(), parsed.plusDays(1).atStartOfDay());
-        } else if (tipo != null && !tipo.isBlank()) {
-            alertas = alertaRepository.findByTipoInfracaoContainingIgnoreCaseOrderByDataHoraDesc(tipo);
-        } else if (status != null) {
-            alertas = alertaRepository.findByStatusOrderByDataHoraDesc(status);
-        } else {
-            alertas = alertaRepository.findAllByOrderByDataHoraDesc();
+            inicio = parsed.atStartOfDay();
+            fim = parsed.plusDays(1).atStartOfDay();
+        }
+        LocalDateTime cursorData = null;
+        if (cursor != null && !cursor.isBlank()) {
+            cursorData = alertaRepository.findDataHora(cursor)
+                    .orElseThrow(() -> new RuntimeException("Cursor de paginacao invalido"));
         }
-        return alertas.stream().map(this::toAlertaDTO).toList();
+        return alertaRepository.buscar(
+                usuarioId == null || usuarioId.isBlank() ? null : usuarioId,
+                inicio,
+                fim,
+                tipo == null || tipo.isBlank() ? null : tipo.trim(),
+                status,
+                risco,
+                cursorData,
+                cursorData != null ? cursor : null,
+                pageable
+        );
     }
 
     public Map<String, Object> estatisticasAlertas() {
-        return Map.of(
-                "total", alertaRepository.count(),
-                "pendentes", alertaRepository.countByStatus(AlertaModeracaoStatus.PENDENTE),
-                "analisados", alertaRepository.countByStatus(AlertaModeracaoStatus.ANALISADO),
-                "resolvidos", alertaRepository.countByStatus(AlertaModeracaoStatus.RESOLVIDO)
-        );
+        return estatisticasModeracaoService.resumo();
     }
 
+    /**
+     * Altera o status direto, fora da fila de revisao. Um alerta reservado por
+     * outro moderador, com a reserva ainda valida, nao pode ser alterado.
+     */
     @Transactional
-    public AlertaModeracaoDTO atualizarAlerta(String alertaId, AlertaModeracaoStatus status) {
-        AlertaModeracao alerta = alertaRepository.findById(alertaId)
+    public AlertaModeracaoDTO atualizarAlerta(String alertaId, String moderadorId, AlertaModeracaoStatus status) {
+        AlertaModeracaoStatus atual = alertaRepository.findStatus(alertaId)
                 .orElseThrow(() -> new RuntimeException("Alerta nao encontrado"));
-        alerta.setStatus(status);
-        return toAlertaDTO(alertaRepository.save(alerta));
+        if (alertaRepository.alterarStatus(alertaId, atual, status, moderadorId, LocalDateTime.now()) == 0) {
+            if (alertaRepository.findStatus(alertaId).orElse(null) != atual) {
+                throw new RuntimeException("Alerta alterado durante a operacao, tente novamente");
+            }
+            throw new RuntimeException("Alerta reservado por outro moderador");
+        }
+        estatisticasModeracaoService.registrarMudancaStatus(atual, status);
+        return toAlertaDTO(alertaRepository.findParaRevisao(List.of(alertaId)).get(0));
     }
 
     @Transactional
     public void removerMensagem(String mensagemId) {
         MensagemNegociacao mensagem = mensagemRepository.findById(mensagemId)
                 .orElseThrow(() -> new RuntimeException("Mensagem nao encontrada"));
-        mensagem.setConteudo("Mensagem removida pela administracao.");
-        mensagem.setRemovida(true);
-        mensagemRepository.save(mensagem);
+        String conteudo = "Mensagem removida pela administracao.";
+        if (mensagemRepository.removerNaoLida(mensagemId, conteudo) == 1) {
+            naoLidasService.decrementar(mensagem.getDestinatario().getId(), mensagem.getConversa().getId(), 1);
+        } else {
+            mensagemRepository.remover(mensagemId, conteudo);
+        }
+    }
+
+    private MensagemNegociacao salvarMensagem(MensagemNegociacao mensagem) {
+        MensagemNegociacao salva = mensagemRepository.save(mensagem);
+        naoLidasService.incrementar(salva.getDestinatario().getId(), salva.getConversa().getId());
+        return salva;
     }
 
     private MensagemNegociacao criarMensagem(
@@ -545,6 +695,14 @@ public class NegociacaoService {
         return "Mensagem enviada.";
     }
 
+    private void publicarEvento(String tipo, ConversaNegociacao conversa, NegociacaoMensagemDTO mensagem) {
+        eventosNegociacaoService.publicar(
+                conversa.getCliente().getId(),
+                conversa.getRevendedor().getId(),
+                new EventoNegociacaoDTO(tipo, conversa.getId(), conversa.getStatus(), mensagem)
+        );
+    }
+
     private Usuario obterDestinatario(ConversaNegociacao conversa, String remetenteId) {
         if (conversa.getCliente().getId().equals(remetenteId)) {
             return conversa.getRevendedor();
@@ -555,50 +713,11 @@ public class NegociacaoService {
         throw new RuntimeException("Usuario nao participa desta negociacao");
     }
 
-    private void verificarModeracao(MensagemNegociacao mensagem) {
-        for (DeteccaoModeracao deteccao : detectar(mensagem.getConteudo())) {
-            AlertaModeracao alerta = new AlertaModeracao();
-            alerta.setMensagem(mensagem);
-            alerta.setUsuario(mensagem.getRemetente());
-            alerta.setUsuarioNome(mensagem.getRemetente().getNome());
-            alerta.setUsuarioTipo(mensagem.getRemetente().getTipo());
-            alerta.setMensagemEnviada(mensagem.getConteudo());
-            alerta.setPalavraDetectada(deteccao.palavra());
-            alerta.setTipoInfracao(deteccao.tipo());
-            alerta.setNivelRisco(deteccao.risco());
-            alertaRepository.save(alerta);
-        }
-    }
-
-    private List<DeteccaoModeracao> detectar(String conteudo) {
-        List<DeteccaoModeracao> deteccoes = new ArrayList<>();
-        String normalizado = normalizar(conteudo);
-        for (RegraModeracao regra : REGRAS) {
-            if (normalizado.contains(regra.termo())) {
-                deteccoes.add(new DeteccaoModeracao(regra.termo(), regra.tipo(), regra.risco()));
-            }
-        }
-        adicionarRegex(deteccoes, EMAIL, conteudo, "email", NivelRiscoModeracao.ALTO);
-        adicionarRegex(deteccoes, URL, conteudo, "url", NivelRiscoModeracao.ALTO);
-        adicionarRegex(deteccoes, USUARIO_EXTERNO, conteudo, "usuario externo", NivelRiscoModeracao.MEDIO);
-        adicionarRegex(deteccoes, TELEFONE, conteudo, "telefone", NivelRiscoModeracao.ALTO);
-        return deteccoes;
-    }
-
-    private void adicionarRegex(List<DeteccaoModeracao> deteccoes, Pattern pattern, String conteudo, String tipo, NivelRiscoModeracao risco) {
-        Matcher matcher = pattern.matcher(conteudo == null ? "" : conteudo);
-        while (matcher.find()) {
-            deteccoes.add(new DeteccaoModeracao(matcher.group().trim(), tipo, risco));
-        }
-    }
-
-    private String normalizar(String texto) {
-        String base = texto == null ? "" : texto.toLowerCase(Locale.ROOT);
-        return Normalizer.normalize(base, Normalizer.Form.NFD)
-                .replaceAll("\\p{M}", "");
+    private NegociacaoConversaDTO toConversaDTO(ConversaNegociacao conversa, String visualizadorId) {
+        return toConversaDTO(conversa, visualizadorId, true);
     }
 
-    private NegociacaoConversaDTO toConversaDTO(ConversaNegociacao conversa, String visualizadorId) {
+    private NegociacaoConversaDTO toConversaDTO(ConversaNegociacao conversa, String visualizadorId, boolean incluirMensagens) {
         NegociacaoConversaDTO dto = new NegociacaoConversaDTO();
         dto.setId(conversa.getId());
         if (conversa.getPedido() != null) {
@@ -623,9 +742,11 @@ public class NegociacaoService {
         if (visualizadorId != null) {
             dto.setNaoLidas(mensagemRepository.countByConversaIdAndDestinatarioIdAndLidaFalseAndRemovidaFalse(conversa.getId(), visualizadorId));
         }
-        dto.setMensagens(mensagemRepository.findByConversaIdOrderByDataEnvioAsc(conversa.getId()).stream()
-                .map(this::toMensagemDTO)
-                .toList());
+        if (incluirMensagens) {
+            dto.setMensagens(mensagemRepository.findByConversaIdOrderByDataEnvioAsc(conversa.getId()).stream()
+                    .map(this::toMensagemDTO)
+                    .toList());
+        }
         return dto;
     }
 
@@ -648,6 +769,19 @@ public class NegociacaoService {
     }
 
     private AlertaModeracaoDTO toAlertaDTO(AlertaModeracao alerta) {
+        return toAlertaDTO(alerta, infracoesService.contar(alerta.getUsuario().getId()));
+    }
+
+    // Os contadores de infracao da pagina inteira saem de uma unica consulta.
+    List<AlertaModeracaoDTO> toAlertaDTOs(List<AlertaModeracao> alertas) {
+        Map<String, Long> infracoes = infracoesService.contar(
+                alertas.stream().map(alerta -> alerta.getUsuario().getId()).distinct().toList());
+        return alertas.stream()
+                .map(alerta -> toAlertaDTO(alerta, infracoes.getOrDefault(alerta.getUsuario().getId(), 0L)))
+                .toList();
+    }
+
+    private AlertaModeracaoDTO toAlertaDTO(AlertaModeracao alerta, long infracoesUsuario) {
         AlertaModeracaoDTO dto = new AlertaModeracaoDTO();
         dto.setId(alerta.getId());
         if (alerta.getMensagem() != null) {
@@ -671,10 +805,13 @@ public class NegociacaoService {
         dto.setTipoInfracao(alerta.getTipoInfracao());
         dto.setNivelRisco(alerta.getNivelRisco());
         dto.setStatus(alerta.getStatus());
-        dto.setContadorInfracoesUsuario(alertaRepository.countByUsuarioId(alerta.getUsuario().getId()));
+        dto.setContadorInfracoesUsuario(infracoesUsuario);
+        dto.setOcorrencias(alerta.getOcorrencias() != null ? alerta.getOcorrencias() : 1);
+        dto.setUltimaOcorrencia(alerta.getUltimaOcorrencia() != null ? alerta.getUltimaOcorrencia() : alerta.getDataHora());
+        dto.setReservadoPor(alerta.getReservadoPor());
+        dto.setReservadoAte(alerta.getReservadoAte());
+        dto.setVersao(alerta.getVersao());
         return dto;
     }
 
-    private record RegraModeracao(String termo, String tipo, NivelRiscoModeracao risco) {}
-    private record DeteccaoModeracao(String palavra, String tipo, NivelRiscoModeracao risco) {}
 }
@@ -1,22 +1,25 @@
 package com.metalSpring.services;
 
+import com.metalSpring.model.dto.PaginaDTO;
+import com.metalSpring.model.dto.PecaResumoDTO;
 import com.metalSpring.model.entity.AlertaModeracao;
 import com.metalSpring.model.entity.Peca;
 import com.metalSpring.model.entity.Revendedor;
 import com.metalSpring.model.entity.Usuario;
 import com.metalSpring.model.enums.NivelRiscoModeracao;
-import com.metalSpring.repository.AlertaModeracaoRepository;
 import com.metalSpring.repository.ItemPedidoRepository;
 import com.metalSpring.repository.PecaRepository;
 import com.metalSpring.repository.RevendedorRepository;
 import com.metalSpring.repository.UsuarioRepository;
+import com.metalSpring.util.CursorUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -35,24 +38,22 @@ public class PecaService {
     private UsuarioRepository usuarioRepository;
 
     @Autowired
-    private AlertaModeracaoRepository alertaModeracaoRepository;
-
-    @Value("${app.taxa.limite:0}")
-    private double limiteTaxaEmAberto;
-
-    private void desativarPremiumExpirado() {
-        List<Revendedor> expirados =
-                revendedorRepository.findByPremiumAtivoTrueAndPremiumAteBefore(LocalDateTime.now());
-        if (!expirados.isEmpty()) {
-            for (Revendedor revendedor : expirados) {
-                revendedor.setPremiumAtivo(false);
-                revendedor.setPremiumAte(null);
-            }
-            revendedorRepository.saveAll(expirados);
-        }
-    }
+    private AlertasModeracaoService alertasModeracaoService;
 
-    
+    @Autowired
+    private IndicePecasService indicePecasService;
+
+    @Autowired
+    private FacetasPecasService facetasPecasService;
+
+    @Autowired
+    private EstoqueService estoqueService;
+
+    @Autowired
+    private TaxasService taxasService;
+
+    private static final int LIMITE_PAGINA_PADRAO = 20;
+    private static final int LIMITE_PAGINA_MAXIMO = 100;
 
     private List<Peca> filtrarAtivas(List<Peca> pecas) {
         return pecas.stream()
@@ -61,8 +62,40 @@ public class PecaService {
     }
 
     public List<Peca> listarTodas() {
-        desativarPremiumExpirado();
-        return filtrarAtivas(pecaRepository.findAllOrderByPremium());
+        return pecaRepository.findDisponiveisOrderByPremium();
+    }
+
+    public PaginaDTO<PecaResumoDTO> listarResumo(String cursor, Integer limite) {
+        int tamanho = limite == null || limite <= 0 ? LIMITE_PAGINA_PADRAO : Math.min(limite, LIMITE_PAGINA_MAXIMO);
+        Boolean cursorPremium = null;
+        String cursorId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] partes = CursorUtils.decodificar(cursor, 2);
+            cursorPremium = "1".equals(partes[0]);
+            cursorId = partes[1];
+        }
+
+        List<PecaResumoDTO> resultados = pecaRepository.listarResumo(cursorPremium, cursorId, PageRequest.of(0, tamanho + 1));
+        boolean temMais = resultados.size() > tamanho;
+        List<PecaResumoDTO> pagina = temMais ? resultados.subList(0, tamanho) : resultados;
+
+        if (!pagina.isEmpty()) {
+            Map<String, PecaResumoDTO> porId = new HashMap<>();
+            pagina.forEach(resumo -> porId.put(resumo.getId(), resumo));
+            for (Object[] linha : pecaRepository.findImagensByPecaIds(porId.keySet())) {
+                PecaResumoDTO resumo = porId.get((String) linha[0]);
+                if (resumo != null && resumo.getImagem() == null) {
+                    resumo.setImagem((String) linha[1]);
+                }
+            }
+        }
+
+        String proximoCursor = null;
+        if (temMais) {
+            PecaResumoDTO ultimo = pagina.get(pagina.size() - 1);
+            proximoCursor = CursorUtils.codificar(ultimo.isPremium() ? "1" : "0", ultimo.getId());
+        }
+        return new PaginaDTO<>(pagina, proximoCursor, temMais);
     }
 
     public Optional<Peca> buscarPorId(String id) {
@@ -71,7 +104,7 @@ public class PecaService {
     }
 
     public List<Peca> buscarPorNome(String nome) {
-        return filtrarAtivas(pecaRepository.findByNomeContainingIgnoreCase(nome));
+        return indicePecasService.buscarPorNome(nome);
     }
 
     public List<Peca> buscarPorMarca(String marca) {
@@ -117,7 +150,10 @@ public class PecaService {
 
     @Transactional
     public Peca salvar(Peca peca) {
-        return pecaRepository.save(peca);
+        Peca salva = pecaRepository.save(peca);
+        indicePecasService.indexar(salva);
+        facetasPecasService.indexar(salva);
+        return salva;
     }
 
     
@@ -135,7 +171,7 @@ public class PecaService {
 
         Revendedor revendedor = revendedorOpt.get();
 
-        if (revendedor.getSaldoTaxas() != null && revendedor.getSaldoTaxas() > limiteTaxaEmAberto) {
+        if (taxasService.possuiTaxasEmAberto(revendedorId)) {
             throw new RuntimeException("Revendedor com taxas em aberto. Regularize para anunciar.");
         }
         System.out.println("✅ [PecaService] Revendedor encontrado: " + revendedor.getNome());
@@ -153,6 +189,10 @@ public class PecaService {
         revendedorRepository.save(revendedor);
         System.out.println("✅ [PecaService] Peça associada ao revendedor");
 
+        indicePecasService.indexar(pecaSalva);
+
+        facetasPecasService.indexar(pecaSalva);
+
         return pecaSalva;
     }
 
@@ -201,11 +241,13 @@ public class PecaService {
                 peca.getEndereco().atualizar(pecaAtualizada.getEndereco());
             }
         }
+        Peca pecaSalva = pecaRepository.save(peca);
         if (pecaAtualizada.getEstoque() != null) {
-            peca.setEstoque(pecaAtualizada.getEstoque());
+            estoqueService.definirEstoque(id, pecaAtualizada.getEstoque());
+            pecaSalva.setEstoque(pecaAtualizada.getEstoque());
         }
-
-        Peca pecaSalva = pecaRepository.save(peca);
+        indicePecasService.indexar(pecaSalva);
+        facetasPecasService.indexar(pecaSalva);
         System.out.println("✅ [PecaService] Peça atualizada com sucesso");
 
         return pecaSalva;
@@ -215,18 +257,7 @@ public class PecaService {
     public void alterarEstoque(String id, int quantidade) {
         System.out.println("📦 [PecaService] Alterando estoque da peça: " + id);
 
-        Optional<Peca> pecaOpt = pecaRepository.findById(id);
-
-        if (pecaOpt.isEmpty()) {
-            System.err.println("❌ [PecaService] Peça não encontrada: " + id);
-            throw new RuntimeException("Peça não encontrada com ID: " + id);
-        }
-
-        Peca peca = pecaOpt.get();
-        peca.alterarEstoque(quantidade);
-        pecaRepository.save(peca);
-
-        System.out.println("✅ [PecaService] Estoque atualizado: " + peca.getEstoque());
+        estoqueService.alterarEstoque(id, quantidade);
     }
 
     @Transactional
@@ -302,7 +333,7 @@ public class PecaService {
         alerta.setPalavraDetectada("denuncia manual");
         alerta.setTipoInfracao("imagem denunciada");
         alerta.setNivelRisco(NivelRiscoModeracao.MEDIO);
-        alertaModeracaoRepository.save(alerta);
+        alertasModeracaoService.criar(alerta);
     }
 
     @Transactional
@@ -319,13 +350,17 @@ public class PecaService {
 
         if (itemPedidoRepository.existsByPecaId(id)) {
             peca.setDisponivel(false);
-            peca.setEstoque(0);
             pecaRepository.save(peca);
+            estoqueService.definirEstoque(id, 0);
+            indicePecasService.remover(id);
+            facetasPecasService.remover(id);
             System.out.println("[PecaService] Peca desativada (possui pedidos)");
             return;
         }
 
         pecaRepository.deleteById(id);
+        indicePecasService.remover(id);
+        facetasPecasService.remover(id);
         System.out.println("✅ [PecaService] Peça deletada com sucesso");
     }
 }
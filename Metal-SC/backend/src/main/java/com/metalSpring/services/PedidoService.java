@@ -1,19 +1,25 @@
 package com.metalSpring.services;
 
 import com.metalSpring.model.dto.EnderecoDTO;
+import com.metalSpring.model.dto.TransicaoLoteDTO;
 import com.metalSpring.model.embeddable.Endereco;
 import com.metalSpring.model.entity.*;
 import com.metalSpring.model.enums.PagamentoStatus;
 import com.metalSpring.model.enums.PedidoStatus;
+import com.metalSpring.model.enums.TipoEventoPedido;
 import com.metalSpring.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class PedidoService {
@@ -33,9 +39,24 @@ public class PedidoService {
     @Autowired
     private ItemPedidoRepository itemPedidoRepository;
 
+    @Autowired
+    private EstoqueService estoqueService;
+
+    @Autowired
+    private TaxasService taxasService;
+
+    @Autowired
+    private EventosPedidoService eventosPedidoService;
+
+    @Autowired
+    private TransicoesPedidoService transicoesPedidoService;
+
     @Value("${app.taxa.percent:0.05}")
     private double taxaPercentual;
 
+    @Value("${app.pedidos.lote-maximo:500}")
+    private int loteMaximo;
+
     public List<Pedido> listarTodos() {
         return pedidoRepository.findAll();
     }
@@ -77,9 +98,10 @@ public class PedidoService {
         pedido.setStatus(PedidoStatus.AGUARDANDO_NEGOCIACAO);
         pedido.setStatusPagamento(PagamentoStatus.BLOQUEADO_AGUARDANDO_NEGOCIACAO);
         pedido.setValorTotal(0.0);
-        pedido.registrarEvento("Pedido criado aguardando negociacao");
 
-        return pedidoRepository.save(pedido);
+        Pedido salvo = pedidoRepository.save(pedido);
+        eventosPedidoService.registrar(salvo.getId(), TipoEventoPedido.CRIADO, clienteId, "Pedido criado aguardando negociacao");
+        return salvo;
     }
 
     @Transactional
@@ -98,9 +120,7 @@ public class PedidoService {
         Pedido pedido = pedidoOpt.get();
         Peca peca = pecaOpt.get();
 
-        if (!peca.estaDisponivel() || peca.getEstoque() < quantidade) {
-            throw new RuntimeException("Peça indisponível ou estoque insuficiente");
-        }
+        estoqueService.reservar(pedidoId, pecaId, quantidade);
 
         ItemPedido item = new ItemPedido();
         item.setPeca(peca);
@@ -122,118 +142,145 @@ public class PedidoService {
         }
 
         Pedido pedido = pedidoOpt.get();
+        int quantidade = pedido.getItens().stream()
+                .filter(item -> item.getPeca().getId().equals(itemId))
+                .mapToInt(ItemPedido::getQuantidade)
+                .sum();
+        estoqueService.liberar(pedidoId, itemId, quantidade);
         pedido.removerItem(itemId);
         pedido.calcularTotal();
 
         return pedidoRepository.save(pedido);
     }
 
+    /**
+     * Alteracao manual de status. O cancelamento segue pelo fluxo proprio, que
+     * devolve as reservas de estoque.
+     */
     @Transactional
     public Pedido atualizarStatus(String pedidoId, PedidoStatus novoStatus) {
-        Optional<Pedido> pedidoOpt = pedidoRepository.findById(pedidoId);
-
-        if (pedidoOpt.isEmpty()) {
-            throw new RuntimeException("Pedido não encontrado");
+        if (novoStatus == PedidoStatus.CANCELADO) {
+            return cancelarPedido(pedidoId);
         }
+        transicoesPedidoService.transicionarManual(pedidoId, novoStatus);
+        eventosPedidoService.registrar(pedidoId, TipoEventoPedido.STATUS_ALTERADO, "Status alterado para " + novoStatus);
 
-        Pedido pedido = pedidoOpt.get();
-        if ((novoStatus == PedidoStatus.EM_PREPARACAO || novoStatus == PedidoStatus.CONCLUIDO)
-                && (!Boolean.TRUE.equals(pedido.getAprovacaoCliente())
-                || !Boolean.TRUE.equals(pedido.getAprovacaoRevendedor())
-                || (pedido.getStatus() != PedidoStatus.PAGAMENTO_CONFIRMADO
-                && pedido.getStatus() != PedidoStatus.EM_SEPARACAO
-                && pedido.getStatus() != PedidoStatus.EM_PREPARACAO))) {
-            throw new RuntimeException("Pedido so pode avancar apos negociacao aprovada e pagamento confirmado");
+        Pedido pedido = carregar(pedidoId);
+        pedido.setStatus(novoStatus);
+        return pedido;
+    }
+
+    /**
+     * Alteracao manual de status de varios pedidos de uma vez, com um unico UPDATE.
+     */
+    @Transactional
+    public TransicaoLoteDTO atualizarStatusEmLote(List<String> pedidoIds, PedidoStatus novoStatus) {
+        if (novoStatus == null) {
+            throw new RuntimeException("Status obrigatorio");
+        }
+        Set<String> ids = new LinkedHashSet<>();
+        if (pedidoIds != null) {
+            for (String id : pedidoIds) {
+                if (id != null && !id.isBlank()) {
+                    ids.add(id.trim());
+                }
+            }
+        }
+        if (ids.isEmpty()) {
+            throw new RuntimeException("Informe ao menos um pedido");
+        }
+        if (ids.size() > loteMaximo) {
+            throw new RuntimeException("Maximo de " + loteMaximo + " pedidos por lote");
         }
-        pedido.atualizarStatus(novoStatus);
-        pedido.registrarEvento("Status alterado para " + novoStatus);
 
-        return pedidoRepository.save(pedido);
+        TransicaoLoteDTO resultado = transicoesPedidoService.transicionarEmLote(ids, novoStatus);
+        if (novoStatus == PedidoStatus.CANCELADO) {
+            eventosPedidoService.registrarEmLote(resultado.getAplicados(), TipoEventoPedido.CANCELADO, "Pedido cancelado");
+            for (String id : resultado.getAplicados()) {
+                estoqueService.liberarPedido(id);
+            }
+        } else {
+            eventosPedidoService.registrarEmLote(resultado.getAplicados(), TipoEventoPedido.STATUS_ALTERADO,
+                    "Status alterado para " + novoStatus);
+        }
+        return resultado;
     }
 
     @Transactional
     public Pedido liberarPagamento(String pedidoId) {
-        Pedido pedido = pedidoRepository.findById(pedidoId)
-                .orElseThrow(() -> new RuntimeException("Pedido nao encontrado"));
-        if (!Boolean.TRUE.equals(pedido.getAprovacaoCliente()) || !Boolean.TRUE.equals(pedido.getAprovacaoRevendedor())) {
-            throw new RuntimeException("Pagamento so pode ser liberado apos aprovacao dos dois lados");
-        }
+        transicoesPedidoService.transicionarAprovado(pedidoId, PedidoStatus.PAGAMENTO_LIBERADO, PagamentoStatus.PAGAMENTO_PENDENTE,
+                "Pagamento so pode ser liberado apos aprovacao dos dois lados");
+        eventosPedidoService.registrar(pedidoId, TipoEventoPedido.PAGAMENTO_LIBERADO, "Pagamento liberado apos aprovacao dupla");
+        estoqueService.renovar(pedidoId);
+
+        Pedido pedido = carregar(pedidoId);
         pedido.setStatus(PedidoStatus.PAGAMENTO_LIBERADO);
         pedido.setStatusPagamento(PagamentoStatus.PAGAMENTO_PENDENTE);
-        pedido.registrarEvento("Pagamento liberado apos aprovacao dupla");
-        return pedidoRepository.save(pedido);
+        return pedido;
     }
 
     @Transactional
     public Pedido informarPagamento(String pedidoId, String clienteId) {
-        Pedido pedido = pedidoRepository.findById(pedidoId)
-                .orElseThrow(() -> new RuntimeException("Pedido nao encontrado"));
+        transicoesPedidoService.transicionar(pedidoId, PedidoStatus.PAGAMENTO_INFORMADO_CLIENTE, PagamentoStatus.PAGAMENTO_INFORMADO_CLIENTE);
+
+        Pedido pedido = carregar(pedidoId);
         if (clienteId != null && pedido.getCliente() != null && !pedido.getCliente().getId().equals(clienteId)) {
             throw new RuntimeException("Apenas o cliente do pedido pode informar pagamento");
         }
-        if (pedido.getStatus() != PedidoStatus.PAGAMENTO_LIBERADO && pedido.getStatus() != PedidoStatus.PAGAMENTO_PENDENTE) {
-            throw new RuntimeException("Pagamento ainda nao esta liberado");
-        }
         pedido.setStatus(PedidoStatus.PAGAMENTO_INFORMADO_CLIENTE);
         pedido.setStatusPagamento(PagamentoStatus.PAGAMENTO_INFORMADO_CLIENTE);
         pedido.setDataPagamentoInformadoCliente(LocalDateTime.now());
-        pedido.registrarEvento("Cliente informou pagamento efetuado: " + (clienteId != null ? clienteId : "cliente"));
+        eventosPedidoService.registrar(pedidoId, TipoEventoPedido.PAGAMENTO_INFORMADO,
+                clienteId != null ? clienteId : pedido.getCliente().getId(),
+                "Cliente informou pagamento efetuado: " + (clienteId != null ? clienteId : "cliente"));
+        estoqueService.renovar(pedidoId);
         return pedidoRepository.save(pedido);
     }
 
     @Transactional
     public Pedido confirmarPagamento(String pedidoId) {
-        Optional<Pedido> pedidoOpt = pedidoRepository.findById(pedidoId);
-
-        if (pedidoOpt.isEmpty()) {
-            throw new RuntimeException("Pedido não encontrado");
-        }
+        transicoesPedidoService.transicionar(pedidoId, PedidoStatus.EM_SEPARACAO, PagamentoStatus.PAGAMENTO_CONFIRMADO);
 
-        Pedido pedido = pedidoOpt.get();
-        pedido.confirmarPagamento();
+        Pedido pedido = carregar(pedidoId);
+        pedido.setStatus(PedidoStatus.EM_SEPARACAO);
+        pedido.setStatusPagamento(PagamentoStatus.PAGAMENTO_CONFIRMADO);
         pedido.setDataPagamento(LocalDateTime.now());
         pedido.setDataPagamentoConfirmado(LocalDateTime.now());
-        pedido.registrarEvento("Pagamento confirmado. Pedido em separacao");
+        eventosPedidoService.registrar(pedidoId, TipoEventoPedido.PAGAMENTO_CONFIRMADO, "Pagamento confirmado. Pedido em separacao");
 
         if (pedido.getTaxaPlataforma() == null) {
-            double baseCalculo = pedido.getValorFinalNegociado() != null ? pedido.getValorFinalNegociado() : pedido.getValorTotal();
-            double taxa = baseCalculo * taxaPercentual;
-            taxa = Math.round(taxa * 100.0) / 100.0;
-            pedido.setTaxaPlataforma(taxa);
-            pedido.setValorLiquidoRevendedor(baseCalculo - taxa);
+            BigDecimal baseCalculo = BigDecimal.valueOf(pedido.getValorFinalNegociado() != null
+                    ? pedido.getValorFinalNegociado() : pedido.getValorTotal());
+            BigDecimal taxa = baseCalculo.multiply(BigDecimal.valueOf(taxaPercentual)).setScale(2, RoundingMode.HALF_UP);
+            pedido.setTaxaPlataforma(taxa.doubleValue());
+            pedido.setValorLiquidoRevendedor(baseCalculo.subtract(taxa).doubleValue());
             pedido.setTaxaPaga(false);
 
             Revendedor vendedor = pedido.getVendedor();
             if (vendedor != null) {
-                Double saldoAtual = vendedor.getSaldoTaxas() != null ? vendedor.getSaldoTaxas() : 0.0;
-                vendedor.setSaldoTaxas(saldoAtual + taxa);
-                revendedorRepository.save(vendedor);
+                taxasService.registrarTaxa(vendedor.getId(), pedido.getId(), taxa);
             }
         }
 
-        
-        for (ItemPedido item : pedido.getItens()) {
-            Peca peca = item.getPeca();
-            peca.alterarEstoque(-item.getQuantidade());
-            pecaRepository.save(peca);
-        }
+        estoqueService.confirmarPedido(pedido);
 
         return pedidoRepository.save(pedido);
     }
 
     @Transactional
     public Pedido cancelarPedido(String pedidoId) {
-        Optional<Pedido> pedidoOpt = pedidoRepository.findById(pedidoId);
-
-        if (pedidoOpt.isEmpty()) {
-            throw new RuntimeException("Pedido não encontrado");
-        }
+        transicoesPedidoService.transicionar(pedidoId, PedidoStatus.CANCELADO);
+        eventosPedidoService.registrar(pedidoId, TipoEventoPedido.CANCELADO, "Pedido cancelado");
+        estoqueService.liberarPedido(pedidoId);
 
-        Pedido pedido = pedidoOpt.get();
-        pedido.cancelarPedido();
-        pedido.registrarEvento("Pedido cancelado");
+        Pedido pedido = carregar(pedidoId);
+        pedido.setStatus(PedidoStatus.CANCELADO);
+        return pedido;
+    }
 
-        return pedidoRepository.save(pedido);
+    private Pedido carregar(String pedidoId) {
+        return pedidoRepository.findById(pedidoId)
+                .orElseThrow(() -> new RuntimeException("Pedido nao encontrado"));
     }
 
     public double calcularTotal(String pedidoId) {
@@ -251,6 +298,8 @@ public class PedidoService {
         if (!pedidoRepository.existsById(id)) {
             throw new RuntimeException("Pedido não encontrado");
         }
+        estoqueService.liberarPedido(id);
+        eventosPedidoService.removerPedido(id);
         pedidoRepository.deleteById(id);
     }
 
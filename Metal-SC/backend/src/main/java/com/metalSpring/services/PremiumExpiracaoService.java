@@ -0,0 +1,61 @@
+package com.metalSpring.services;
+
+import com.metalSpring.repository.PecaRepository;
+import com.metalSpring.repository.RevendedorRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Desativa periodicamente o premium dos revendedores cujo prazo venceu,
+ * com um unico UPDATE por varredura. A listagem de pecas ordena pela copia
+ * do flag em cada peca (vendedor_premium), alinhada na mesma varredura e
+ * na subida da aplicacao; ela pode ficar ate um intervalo atrasada.
+ */
+@Service
+public class PremiumExpiracaoService {
+
+    private static final Logger log = LoggerFactory.getLogger(PremiumExpiracaoService.class);
+
+    @Autowired
+    private RevendedorRepository revendedorRepository;
+
+    @Autowired
+    private PecaRepository pecaRepository;
+
+    @Autowired
+    private MetricasService metricasService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void sincronizarPecas() {
+        int alteradas = pecaRepository.sincronizarVendedorPremium(true) + pecaRepository.sincronizarVendedorPremium(false);
+        if (alteradas > 0) {
+            log.info("Flag premium copiado para {} peca(s)", alteradas);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.premium.varredura-ms:60000}",
+               initialDelayString = "${app.premium.varredura-ms:60000}")
+    @Transactional
+    public int expirarPremium() {
+        int expirados = revendedorRepository.expirarPremium(LocalDateTime.now());
+        if (expirados > 0) {
+            pecaRepository.sincronizarVendedorPremium(false);
+        }
+        metricasService.incrementar("premium.varreduras");
+        metricasService.incrementar("premium.expirados.total", expirados);
+        metricasService.registrarValor("premium.expirados.ultima_varredura", expirados);
+        if (expirados > 0) {
+            log.info("Premium expirado para {} revendedor(es)", expirados);
+        }
+        return expirados;
+    }
+}
@@ -4,6 +4,7 @@ import com.metalSpring.model.entity.Revendedor;
 import com.metalSpring.model.entity.Peca;
 import com.metalSpring.repository.RevendedorRepository;
 import com.metalSpring.repository.PecaRepository;
+import com.metalSpring.security.UsuarioDetailsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -25,6 +26,18 @@ public class RevendedorService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private IndicePecasService indicePecasService;
+
+    @Autowired
+    private FacetasPecasService facetasPecasService;
+
+    @Autowired
+    private UsuarioDetailsService usuarioDetailsService;
+
+    @Autowired
+    private EstoqueService estoqueService;
+
     public List<Revendedor> listarTodos() {
         return revendedorRepository.findAll();
     }
@@ -108,6 +121,8 @@ public class RevendedorService {
         revendedor.adicionarPeca(pecaSalva);
 
         revendedorRepository.save(revendedor);
+        indicePecasService.indexar(pecaSalva);
+        facetasPecasService.indexar(pecaSalva);
     }
 
     @Transactional
@@ -128,6 +143,8 @@ public class RevendedorService {
 
         pecaRepository.deleteById(pecaId);
         revendedorRepository.save(revendedor);
+        indicePecasService.remover(pecaId);
+        facetasPecasService.remover(pecaId);
     }
 
     @Transactional
@@ -143,14 +160,12 @@ public class RevendedorService {
             throw new RuntimeException("Peça não encontrada");
         }
 
-        Revendedor revendedor = revendedorOpt.get();
-        revendedor.atualizarEstoque(pecaId, quantidade);
-
         Peca peca = pecaOpt.get();
-        peca.setEstoque(quantidade);
+        if (peca.getVendedor() == null || !peca.getVendedor().getId().equals(revendedorId)) {
+            throw new RuntimeException("Peça não encontrada");
+        }
 
-        pecaRepository.save(peca);
-        revendedorRepository.save(revendedor);
+        estoqueService.definirEstoque(pecaId, quantidade);
     }
 
     @Transactional
@@ -186,6 +201,7 @@ public class RevendedorService {
             throw new RuntimeException("Revendedor não encontrado");
         }
         revendedorRepository.deleteById(id);
+        usuarioDetailsService.invalidar(id);
     }
 
     public boolean cnpjExiste(String cnpj) {
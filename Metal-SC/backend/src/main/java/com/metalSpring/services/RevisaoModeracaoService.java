@@ -0,0 +1,133 @@
+package com.metalSpring.services;
+
+import com.metalSpring.model.dto.AlertaModeracaoDTO;
+import com.metalSpring.model.enums.AlertaModeracaoStatus;
+import com.metalSpring.model.enums.NivelRiscoModeracao;
+import com.metalSpring.repository.AlertaModeracaoRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fila de revisao dos alertas de moderacao.
+ *
+ * Cada moderador reserva um lote de alertas pendentes, do maior risco e mais
+ * antigo para o mais novo. A reserva e um compare-and-set na coluna de versao,
+ * entao dois moderadores nunca ficam com o mesmo alerta; cada alerta e
+ * reservado na sua propria transacao curta, para nao segurar o lock das
+ * linhas ja reservadas enquanto as seguintes sao disputadas. A reserva
+ * expira sozinha apos o prazo, devolvendo o alerta a fila se o moderador sumir.
+ */
+@Service
+public class RevisaoModeracaoService {
+
+    private static final Logger log = LoggerFactory.getLogger(RevisaoModeracaoService.class);
+
+    private static final int LOTE_PADRAO = 10;
+    private static final int LOTE_MAXIMO = 50;
+
+    @Autowired
+    private AlertaModeracaoRepository alertaRepository;
+
+    @Autowired
+    private NegociacaoService negociacaoService;
+
+    @Autowired
+    private EstatisticasModeracaoService estatisticasModeracaoService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.moderacao.reserva-minutos:15}")
+    private long reservaMinutos;
+
+    private TransactionTemplate transacao;
+
+    @PostConstruct
+    public void iniciar() {
+        transacao = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void preencherColunas() {
+        int atualizados = alertaRepository.preencherVersao();
+        for (NivelRiscoModeracao risco : NivelRiscoModeracao.values()) {
+            atualizados += alertaRepository.preencherPrioridade(risco, risco.ordinal());
+        }
+        if (atualizados > 0) {
+            log.info("Colunas da fila de revisao preenchidas em {} alertas", atualizados);
+        }
+    }
+
+    /**
+     * Reserva ate {@code limite} alertas para o moderador. Candidatos disputados
+     * por outro moderador no mesmo instante sao pulados.
+     */
+    public List<AlertaModeracaoDTO> reservar(String moderadorId, Integer limite) {
+        int tamanho = limite == null || limite <= 0 ? LOTE_PADRAO : Math.min(limite, LOTE_MAXIMO);
+        LocalDateTime agora = LocalDateTime.now();
+        LocalDateTime ate = agora.plusMinutes(reservaMinutos);
+
+        // Busca folga para compensar os candidatos perdidos na disputa.
+        List<Object[]> candidatos = alertaRepository.findCandidatosRevisao(
+                AlertaModeracaoStatus.PENDENTE, agora, PageRequest.of(0, tamanho * 2));
+        List<String> reservados = new ArrayList<>(tamanho);
+        for (Object[] candidato : candidatos) {
+            if (reservados.size() == tamanho) {
+                break;
+            }
+            String id = (String) candidato[0];
+            Long versao = (Long) candidato[1];
+            Integer alterados = transacao.execute(status -> alertaRepository.reservar(id, versao, moderadorId, ate));
+            if (alterados != null && alterados == 1) {
+                reservados.add(id);
+            }
+        }
+        if (reservados.isEmpty()) {
+            return List.of();
+        }
+        return negociacaoService.toAlertaDTOs(alertaRepository.findParaRevisao(reservados));
+    }
+
+    @Transactional
+    public void renovar(String alertaId, String moderadorId) {
+        LocalDateTime agora = LocalDateTime.now();
+        if (alertaRepository.renovarReserva(alertaId, moderadorId, agora, agora.plusMinutes(reservaMinutos),
+                AlertaModeracaoStatus.PENDENTE) == 0) {
+            throw new RuntimeException("Reserva do alerta expirada ou pertencente a outro moderador");
+        }
+    }
+
+    @Transactional
+    public void liberar(String alertaId, String moderadorId) {
+        if (alertaRepository.liberarReserva(alertaId, moderadorId) == 0) {
+            throw new RuntimeException("Alerta nao esta reservado por este moderador");
+        }
+    }
+
+    @Transactional
+    public void concluir(String alertaId, String moderadorId, AlertaModeracaoStatus status) {
+        if (status == AlertaModeracaoStatus.PENDENTE) {
+            throw new RuntimeException("Informe o status final da revisao");
+        }
+        if (alertaRepository.concluirRevisao(alertaId, moderadorId, LocalDateTime.now(), status) == 0) {
+            throw new RuntimeException("Reserva do alerta expirada ou pertencente a outro moderador");
+        }
+        // Reservas so existem em alertas pendentes.
+        estatisticasModeracaoService.registrarMudancaStatus(AlertaModeracaoStatus.PENDENTE, status);
+    }
+}
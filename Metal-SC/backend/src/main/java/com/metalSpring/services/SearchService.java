@@ -1,21 +1,43 @@
 package com.metalSpring.services;
 
+import com.metalSpring.model.dto.FacetaValorDTO;
+import com.metalSpring.model.dto.FacetasDTO;
+import com.metalSpring.model.dto.PaginaDTO;
 import com.metalSpring.model.entity.Peca;
+import com.metalSpring.model.enums.PecaEstado;
 import com.metalSpring.repository.PecaRepository;
+import com.metalSpring.util.CursorUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class SearchService {
 
+    private static final int LIMITE_PADRAO = 20;
+    private static final int LIMITE_MAXIMO = 100;
+
     @Autowired
     private PecaRepository pecaRepository;
 
+    @Autowired
+    private IndicePecasService indicePecasService;
+
+    @Autowired
+    private FacetasPecasService facetasPecasService;
+
+    public List<Peca> buscarTexto(String texto, Integer limite) {
+        int tamanho = limite == null || limite <= 0 ? LIMITE_PADRAO : Math.min(limite, LIMITE_MAXIMO);
+        return indicePecasService.buscarPecas(texto, tamanho);
+    }
+
     public List<Peca> buscarPorNome(String nome) {
-        return pecaRepository.findByNomeContainingIgnoreCase(nome);
+        return indicePecasService.buscarPorNome(nome);
     }
 
     public List<Peca> buscarPorMarca(String marca) {
@@ -27,7 +49,7 @@ public class SearchService {
     }
 
     public List<Peca> buscarPorModeloVeiculo(String modeloVeiculo) {
-        return pecaRepository.findByModeloVeiculoContainingIgnoreCase(modeloVeiculo);
+        return indicePecasService.buscarPorModeloVeiculo(modeloVeiculo);
     }
 
     public List<Peca> buscarPorAno(int ano) {
@@ -41,45 +63,59 @@ public class SearchService {
     public List<Peca> buscarAvancada(String nome, String marca, String categoria,
                                      String modeloVeiculo, Integer ano,
                                      Double precoMin, Double precoMax) {
-        List<Peca> resultados = pecaRepository.findAll();
-
-        if (nome != null && !nome.isEmpty()) {
-            resultados = resultados.stream()
-                    .filter(p -> p.getNome().toLowerCase().contains(nome.toLowerCase()))
-                    .collect(Collectors.toList());
-        }
-
-        if (marca != null && !marca.isEmpty()) {
-            resultados = resultados.stream()
-                    .filter(p -> p.getMarca().equalsIgnoreCase(marca))
-                    .collect(Collectors.toList());
-        }
-
-        if (categoria != null && !categoria.isEmpty()) {
-            resultados = resultados.stream()
-                    .filter(p -> p.getCategoria().equalsIgnoreCase(categoria))
-                    .collect(Collectors.toList());
-        }
+        return pecaRepository.buscarAvancada(
+                vazioParaNulo(nome),
+                vazioParaNulo(marca),
+                vazioParaNulo(categoria),
+                vazioParaNulo(modeloVeiculo),
+                ano,
+                ano,
+                precoMin,
+                precoMax,
+                null
+        );
+    }
 
-        if (modeloVeiculo != null && !modeloVeiculo.isEmpty()) {
-            resultados = resultados.stream()
-                    .filter(p -> p.getModeloVeiculo().toLowerCase().contains(modeloVeiculo.toLowerCase()))
-                    .collect(Collectors.toList());
+    public PaginaDTO<Peca> buscarAvancadaPaginada(String nome, String marca, String categoria,
+                                                  String modeloVeiculo, Integer anoMin, Integer anoMax,
+                                                  Double precoMin, Double precoMax, PecaEstado estado,
+                                                  String cursor, Integer limite) {
+        int tamanho = limite == null || limite <= 0 ? LIMITE_PADRAO : Math.min(limite, LIMITE_MAXIMO);
+        Boolean cursorPremium = null;
+        String cursorId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] partes = CursorUtils.decodificar(cursor, 2);
+            cursorPremium = "1".equals(partes[0]);
+            cursorId = partes[1];
         }
 
-        if (ano != null) {
-            resultados = resultados.stream()
-                    .filter(p -> p.getAno() == ano)
-                    .collect(Collectors.toList());
-        }
+        List<Peca> resultados = pecaRepository.buscarAvancadaPorCursor(
+                vazioParaNulo(nome),
+                vazioParaNulo(marca),
+                vazioParaNulo(categoria),
+                vazioParaNulo(modeloVeiculo),
+                anoMin,
+                anoMax,
+                precoMin,
+                precoMax,
+                estado,
+                cursorPremium,
+                cursorId,
+                PageRequest.of(0, tamanho + 1)
+        );
+
+        boolean temMais = resultados.size() > tamanho;
+        List<Peca> pagina = temMais ? resultados.subList(0, tamanho) : resultados;
+        String proximoCursor = temMais ? codificarCursor(pagina.get(pagina.size() - 1)) : null;
+        return new PaginaDTO<>(pagina, proximoCursor, temMais);
+    }
 
-        if (precoMin != null && precoMax != null) {
-            resultados = resultados.stream()
-                    .filter(p -> p.getPreco() >= precoMin && p.getPreco() <= precoMax)
-                    .collect(Collectors.toList());
-        }
+    private String codificarCursor(Peca peca) {
+        return CursorUtils.codificar(peca.isVendedorPremium() ? "1" : "0", peca.getId());
+    }
 
-        return resultados;
+    private String vazioParaNulo(String valor) {
+        return valor == null || valor.isBlank() ? null : valor.trim();
     }
 
     public List<Peca> buscarDisponiveis() {
@@ -91,26 +127,34 @@ public class SearchService {
     }
 
     public List<String> listarMarcas() {
-        return pecaRepository.findAll().stream()
-                .map(Peca::getMarca)
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
+        return valoresDaFaceta(FacetasPecasService.Faceta.MARCA);
     }
 
     public List<String> listarCategorias() {
-        return pecaRepository.findAll().stream()
-                .map(Peca::getCategoria)
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
+        return valoresDaFaceta(FacetasPecasService.Faceta.CATEGORIA);
     }
 
     public List<Integer> listarAnos() {
-        return pecaRepository.findAll().stream()
-                .map(Peca::getAno)
-                .distinct()
-                .sorted()
+        return valoresDaFaceta(FacetasPecasService.Faceta.ANO).stream()
+                .map(Integer::valueOf)
+                .collect(Collectors.toList());
+    }
+
+    public FacetasDTO listarFacetas(String marca, String categoria, Integer ano,
+                                    String estadoEndereco, String cidade, PecaEstado estadoPeca) {
+        Map<FacetasPecasService.Faceta, String> filtros = new EnumMap<>(FacetasPecasService.Faceta.class);
+        filtros.put(FacetasPecasService.Faceta.MARCA, marca);
+        filtros.put(FacetasPecasService.Faceta.CATEGORIA, categoria);
+        filtros.put(FacetasPecasService.Faceta.ANO, ano != null ? ano.toString() : null);
+        filtros.put(FacetasPecasService.Faceta.ESTADO_ENDERECO, estadoEndereco);
+        filtros.put(FacetasPecasService.Faceta.CIDADE, cidade);
+        filtros.put(FacetasPecasService.Faceta.ESTADO_PECA, estadoPeca != null ? estadoPeca.name() : null);
+        return facetasPecasService.contar(filtros);
+    }
+
+    private List<String> valoresDaFaceta(FacetasPecasService.Faceta faceta) {
+        return facetasPecasService.listar(faceta).stream()
+                .map(FacetaValorDTO::getValor)
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+}
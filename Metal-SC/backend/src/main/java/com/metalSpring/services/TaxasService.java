@@ -0,0 +1,117 @@
+package com.metalSpring.services;
+
+import com.metalSpring.model.entity.LancamentoTaxa;
+import com.metalSpring.model.entity.SaldoTaxas;
+import com.metalSpring.model.enums.TipoLancamentoTaxa;
+import com.metalSpring.repository.LancamentoTaxaRepository;
+import com.metalSpring.repository.RevendedorRepository;
+import com.metalSpring.repository.SaldoTaxasRepository;
+import com.metalSpring.util.TransacaoUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Extrato de taxas da plataforma por revendedor.
+ *
+ * Cada taxa ou baixa e um lancamento novo em lancamentos_taxas, e o saldo em
+ * saldos_taxas e ajustado por incremento no banco na mesma transacao, entao
+ * confirmacoes de pagamento simultaneas do mesmo revendedor nao perdem taxas.
+ * Os saldos ficam espelhados em memoria, ajustados apos o commit, e atendem
+ * as leituras do painel e a verificacao de taxas em aberto ao anunciar. O
+ * espelho so e fiel com uma unica instancia: com varias, cada uma ve apenas
+ * os lancamentos que ela mesma gravou desde a subida, e as leituras teriam
+ * de ir a saldos_taxas.
+ */
+@Service
+public class TaxasService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaxasService.class);
+
+    @Autowired
+    private LancamentoTaxaRepository lancamentoRepository;
+
+    @Autowired
+    private SaldoTaxasRepository saldoRepository;
+
+    @Autowired
+    private RevendedorRepository revendedorRepository;
+
+    @Value("${app.taxa.limite:0}")
+    private BigDecimal limiteEmAberto;
+
+    private final Map<String, BigDecimal> saldos = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void carregar() {
+        if (saldoRepository.count() == 0) {
+            // Primeira subida com o extrato: abre o saldo com o valor que estava no revendedor.
+            for (Object[] linha : revendedorRepository.findSaldosTaxasLegados()) {
+                BigDecimal valor = BigDecimal.valueOf((Double) linha[1]).setScale(2, RoundingMode.HALF_UP);
+                lancar((String) linha[0], null, TipoLancamentoTaxa.SALDO_INICIAL, valor);
+            }
+        }
+
+        saldos.clear();
+        for (SaldoTaxas saldo : saldoRepository.findAll()) {
+            saldos.put(saldo.getRevendedorId(), saldo.getSaldo());
+        }
+        log.info("Saldos de taxas carregados para {} revendedores", saldos.size());
+    }
+
+    /**
+     * Lanca a taxa do pedido. Um pedido gera uma unica taxa; chamadas repetidas sao ignoradas.
+     */
+    @Transactional
+    public void registrarTaxa(String revendedorId, String pedidoId, BigDecimal valor) {
+        if (valor.signum() <= 0 || lancamentoRepository.existsByPedidoIdAndTipo(pedidoId, TipoLancamentoTaxa.TAXA)) {
+            return;
+        }
+        lancar(revendedorId, pedidoId, TipoLancamentoTaxa.TAXA, valor);
+        TransacaoUtils.aposCommit(() -> saldos.merge(revendedorId, valor, BigDecimal::add));
+    }
+
+    /**
+     * Baixa o valor do saldo do revendedor, sem deixa-lo negativo. Sem valor, zera o saldo.
+     */
+    @Transactional
+    public BigDecimal baixar(String revendedorId, BigDecimal valor) {
+        if (valor != null && valor.signum() < 0) {
+            throw new RuntimeException("Valor da baixa deve ser positivo");
+        }
+        BigDecimal atual = saldoRepository.travarSaldo(revendedorId);
+        if (atual == null || atual.signum() <= 0) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal baixa = valor == null ? atual : valor.setScale(2, RoundingMode.HALF_UP).min(atual);
+        if (baixa.signum() > 0) {
+            lancar(revendedorId, null, TipoLancamentoTaxa.BAIXA, baixa.negate());
+            TransacaoUtils.aposCommit(() -> saldos.merge(revendedorId, baixa.negate(), BigDecimal::add));
+        }
+        return baixa;
+    }
+
+    public BigDecimal saldo(String revendedorId) {
+        return saldos.getOrDefault(revendedorId, BigDecimal.ZERO);
+    }
+
+    public boolean possuiTaxasEmAberto(String revendedorId) {
+        return saldo(revendedorId).compareTo(limiteEmAberto) > 0;
+    }
+
+    private void lancar(String revendedorId, String pedidoId, TipoLancamentoTaxa tipo, BigDecimal valor) {
+        lancamentoRepository.save(new LancamentoTaxa(revendedorId, pedidoId, tipo, valor));
+        saldoRepository.somar(revendedorId, valor);
+    }
+}
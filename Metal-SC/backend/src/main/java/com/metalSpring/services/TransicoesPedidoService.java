@@ -0,0 +1,153 @@
+package com.metalSpring.services;
+
+import com.metalSpring.model.dto.TransicaoLoteDTO;
+import com.metalSpring.model.enums.PagamentoStatus;
+import com.metalSpring.model.enums.PedidoStatus;
+import com.metalSpring.repository.PedidoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Aplica as transicoes de status de PedidoStatus direto no banco.
+ *
+ * Cada transicao e um UPDATE condicionado ao status atual estar entre as
+ * origens permitidas para o destino, sem carregar o pedido; quando nenhuma
+ * linha e alterada, apenas o status e consultado para montar o erro.
+ */
+@Service
+public class TransicoesPedidoService {
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Transactional
+    public void transicionar(String pedidoId, PedidoStatus destino) {
+        Set<PedidoStatus> origens = origens(destino, false);
+        if (pedidoRepository.transicionar(pedidoId, origens, destino) == 0) {
+            throw rejeicao(pedidoId, destino, origens, false, null);
+        }
+    }
+
+    @Transactional
+    public void transicionar(String pedidoId, PedidoStatus destino, PagamentoStatus pagamento) {
+        Set<PedidoStatus> origens = origens(destino, false);
+        if (pedidoRepository.transicionarComPagamento(pedidoId, origens, destino, pagamento) == 0) {
+            throw rejeicao(pedidoId, destino, origens, false, null);
+        }
+    }
+
+    /**
+     * Transicao que tambem exige a aprovacao do cliente e do revendedor no pedido.
+     */
+    @Transactional
+    public void transicionarAprovado(String pedidoId, PedidoStatus destino, PagamentoStatus pagamento, String mensagemSemAprovacao) {
+        Set<PedidoStatus> origens = origens(destino, false);
+        if (pedidoRepository.transicionarAprovado(pedidoId, origens, destino, pagamento) == 0) {
+            throw rejeicao(pedidoId, destino, origens, false, mensagemSemAprovacao);
+        }
+    }
+
+    /**
+     * Alteracao manual de status, feita pelo revendedor ou pelo administrador.
+     */
+    @Transactional
+    public void transicionarManual(String pedidoId, PedidoStatus destino) {
+        Set<PedidoStatus> origens = origens(destino, true);
+        if (origens.isEmpty() || pedidoRepository.transicionar(pedidoId, origens, destino) == 0) {
+            throw rejeicao(pedidoId, destino, origens, true, null);
+        }
+    }
+
+    /**
+     * Aplica a alteracao manual a varios pedidos com um unico UPDATE. Os pedidos
+     * cujo status atual nao permite o destino sao rejeitados sem serem alterados.
+     */
+    @Transactional
+    public TransicaoLoteDTO transicionarEmLote(Collection<String> pedidoIds, PedidoStatus destino) {
+        TransicaoLoteDTO resultado = new TransicaoLoteDTO(destino);
+        Set<PedidoStatus> origens = origens(destino, true);
+
+        Map<String, PedidoStatus> atuais = new HashMap<>();
+        for (Object[] linha : pedidoRepository.findStatusPorIds(pedidoIds)) {
+            atuais.put((String) linha[0], (PedidoStatus) linha[1]);
+        }
+        List<String> candidatos = new ArrayList<>();
+        for (String id : pedidoIds) {
+            PedidoStatus atual = atuais.get(id);
+            if (atual == null) {
+                resultado.getRejeitados().put(id, "Pedido nao encontrado");
+            } else if (!origens.contains(atual)) {
+                resultado.getRejeitados().put(id, motivo(atual, destino, origens, true));
+            } else {
+                candidatos.add(id);
+            }
+        }
+        if (candidatos.isEmpty()) {
+            return resultado;
+        }
+
+        int alterados = pedidoRepository.transicionarEmLote(candidatos, origens, destino);
+        if (alterados == candidatos.size()) {
+            resultado.getAplicados().addAll(candidatos);
+            return resultado;
+        }
+        // Algum pedido mudou de status entre a leitura e o UPDATE.
+        Set<String> noDestino = new HashSet<>(pedidoRepository.findIdsComStatus(candidatos, destino));
+        for (String id : candidatos) {
+            if (noDestino.contains(id)) {
+                resultado.getAplicados().add(id);
+            } else {
+                resultado.getRejeitados().put(id, "Status do pedido alterado durante a operacao");
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Origens da tabela aceitas pelo tipo de transicao. Ate a confirmacao do
+     * pagamento o pedido so avanca pela negociacao e pelas operacoes de
+     * pagamento, que tem efeitos em estoque e taxas; depois dela, apenas por
+     * alteracao manual. O cancelamento vale a partir de qualquer origem.
+     */
+    private static Set<PedidoStatus> origens(PedidoStatus destino, boolean manual) {
+        Set<PedidoStatus> origens = EnumSet.noneOf(PedidoStatus.class);
+        for (PedidoStatus origem : PedidoStatus.origensDe(destino)) {
+            if (destino == PedidoStatus.CANCELADO || origem.isPagamentoConfirmado() == manual) {
+                origens.add(origem);
+            }
+        }
+        return origens;
+    }
+
+    private RuntimeException rejeicao(String pedidoId, PedidoStatus destino, Set<PedidoStatus> origens,
+                                      boolean manual, String mensagemGuarda) {
+        PedidoStatus atual = pedidoRepository.findStatus(pedidoId)
+                .orElseThrow(() -> new RuntimeException("Pedido nao encontrado"));
+        if (origens.contains(atual) && mensagemGuarda != null) {
+            return new RuntimeException(mensagemGuarda);
+        }
+        return new RuntimeException(motivo(atual, destino, origens, manual));
+    }
+
+    private static String motivo(PedidoStatus atual, PedidoStatus destino, Set<PedidoStatus> origens, boolean manual) {
+        if (origens.contains(atual)) {
+            return "Status do pedido alterado durante a operacao";
+        }
+        if (atual.permite(destino)) {
+            return manual
+                    ? "Pedido em " + atual + " so passa para " + destino + " pelas operacoes de pagamento"
+                    : "Pedido em " + atual + " so passa para " + destino + " por alteracao manual";
+        }
+        return "Pedido em " + atual + " nao pode passar para " + destino;
+    }
+}
@@ -2,6 +2,7 @@ package com.metalSpring.services;
 
 import com.metalSpring.model.entity.Usuario;
 import com.metalSpring.repository.UsuarioRepository;
+import com.metalSpring.security.UsuarioDetailsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -20,6 +21,9 @@ public class UsuarioService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UsuarioDetailsService usuarioDetailsService;
+
     public List<Usuario> listarTodos() {
         return usuarioRepository.findAll();
     }
@@ -90,6 +94,7 @@ public class UsuarioService {
         
         usuario.setSenhaHash(passwordEncoder.encode(novaSenha));
         usuarioRepository.save(usuario);
+        usuarioDetailsService.invalidar(id);
     }
 
     public boolean validarSenha(String id, String senha) {
@@ -109,6 +114,7 @@ public class UsuarioService {
             throw new RuntimeException("Usuário não encontrado");
         }
         usuarioRepository.deleteById(id);
+        usuarioDetailsService.invalidar(id);
     }
 
     public boolean emailExiste(String email) {
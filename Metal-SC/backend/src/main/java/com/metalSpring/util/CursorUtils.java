@@ -0,0 +1,29 @@
+package com.metalSpring.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public final class CursorUtils {
+
+    private CursorUtils() {}
+
+    // Cursor opaco de paginacao: as partes separadas por ':' em base64 url-safe.
+    public static String codificar(String... partes) {
+        String valor = String.join(":", partes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // A ultima parte pode conter ':' (ids, por exemplo).
+    public static String[] decodificar(String cursor, int quantidadePartes) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = valor.split(":", quantidadePartes);
+            if (partes.length != quantidadePartes || partes[quantidadePartes - 1].isBlank()) {
+                throw new IllegalArgumentException();
+            }
+            return partes;
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Cursor de paginacao invalido");
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.metalSpring.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public final class TextoUtils {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}");
+
+    // Dobra pre-calculada de Latin-1 e Latin Extended-A (ate U+017F), derivada de normalizar().
+    private static final char[] DOBRA = new char[0x180];
+
+    static {
+        for (char c = 0; c < DOBRA.length; c++) {
+            String dobrado = normalizar(String.valueOf(c));
+            DOBRA[c] = dobrado.length() == 1 ? dobrado.charAt(0) : Character.toLowerCase(c);
+        }
+    }
+
+    private TextoUtils() {}
+
+    // Minusculas e sem acentos: "Suspensão" -> "suspensao".
+    public static String normalizar(String texto) {
+        String base = texto == null ? "" : texto.toLowerCase(Locale.ROOT);
+        return MARCAS.matcher(Normalizer.normalize(base, Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    /**
+     * Versao de normalizar() caractere a caractere, sem alocar: devolve o caractere
+     * em minusculas e sem acento, ou '\0' para marcas combinantes, que devem ser puladas.
+     */
+    public static char dobrar(char c) {
+        if (c < DOBRA.length) {
+            return DOBRA[c];
+        }
+        if (c >= '\u0300' && c <= '\u036F') {
+            return '\0';
+        }
+        return Character.toLowerCase(c);
+    }
+
+    // O texto como o motor de moderacao o percorre: dobrar() em cada caractere, sem as marcas.
+    public static String dobrar(String texto) {
+        StringBuilder dobrado = new StringBuilder(texto.length());
+        for (int i = 0; i < texto.length(); i++) {
+            char c = dobrar(texto.charAt(i));
+            if (c != '\0') {
+                dobrado.append(c);
+            }
+        }
+        return dobrado.toString();
+    }
+}
@@ -0,0 +1,23 @@
+package com.metalSpring.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public final class TransacaoUtils {
+
+    private TransacaoUtils() {}
+
+    // Executa a acao apos o commit da transacao corrente, ou na hora se nao houver transacao.
+    public static void aposCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.metalSpring.services;
+
+import com.metalSpring.model.entity.RegraModeracao;
+import com.metalSpring.model.enums.NivelRiscoModeracao;
+import com.metalSpring.util.TextoUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compara o motor compilado com a deteccao antiga (normalizar + contains para
+ * termos, find para expressoes) usando as regras padrao.
+ */
+class MotorModeracaoTests {
+
+	private static final List<String> AMOSTRAS = List.of(
+			"",
+			"Bom dia, a peça ainda está disponível?",
+			"Me CHAMA no WhatsApp",
+			"me chama no zap que te passo o pix",
+			"meu número é 11 98765-4321",
+			"MEU NÚMERO É (48) 99999.0000",
+			"te\u0301lefone com acento decomposto",
+			"TELEFÔNE e telefone de novo",
+			"manda um direct no Instagrãm @loja_pecas",
+			"directo pelo telegramzap",
+			"QR Code ou qrcode, tanto faz",
+			"email: vendas.pecas@gmail.com ou hotmail",
+			"acesse www.pecas.com.br ou https://wa.me/5548999990000",
+			"Outlook, DISCORD, Pix, pIx",
+			"chamachama no zap",
+			"whatsappwhatsapp",
+			"Ação, coração, pão e feijão"
+	);
+
+	@Test
+	void termosDetectadosComoNormalizarMaisContains() {
+		List<MotorModeracao.Regra> regras = compilar(ModeracaoService.REGRAS_PADRAO);
+		MotorModeracao motor = MotorModeracao.compilar(regras);
+
+		for (String amostra : AMOSTRAS) {
+			List<ModeracaoService.Deteccao> deteccoes = motor.detectar(amostra);
+
+			String normalizada = TextoUtils.normalizar(amostra);
+			Set<String> esperados = new HashSet<>();
+			List<String> esperadasExpressoes = new ArrayList<>();
+			for (MotorModeracao.Regra regra : regras) {
+				if (regra.padrao() == null) {
+					if (normalizada.contains(TextoUtils.normalizar(regra.termo()))) {
+						esperados.add(regra.termo());
+					}
+				} else {
+					Matcher matcher = regra.padrao().matcher(amostra);
+					while (matcher.find()) {
+						esperadasExpressoes.add(regra.termo() + "=" + matcher.group().trim());
+					}
+				}
+			}
+
+			List<String> termos = new ArrayList<>();
+			List<String> expressoes = new ArrayList<>();
+			for (ModeracaoService.Deteccao deteccao : deteccoes) {
+				if (deteccao.regraId().equals(deteccao.palavra())) {
+					termos.add(deteccao.palavra());
+				} else {
+					expressoes.add(deteccao.regraId() + "=" + deteccao.palavra());
+				}
+			}
+
+			assertEquals(esperados, new HashSet<>(termos), amostra);
+			assertEquals(termos.size(), new HashSet<>(termos).size(), "termo repetido em: " + amostra);
+			assertEquals(esperadasExpressoes, expressoes, amostra);
+		}
+	}
+
+	@Test
+	void termosSobrepostosSaoTodosDetectados() {
+		MotorModeracao motor = MotorModeracao.compilar(compilar(List.of(
+				new RegraModeracao("me chama", false, "contato externo", NivelRiscoModeracao.MEDIO),
+				new RegraModeracao("chama no zap", false, "contato externo", NivelRiscoModeracao.ALTO),
+				new RegraModeracao("zap", false, "aplicativo externo", NivelRiscoModeracao.ALTO),
+				new RegraModeracao("ação", false, "teste", NivelRiscoModeracao.BAIXO)
+		)));
+
+		Set<String> detectados = new HashSet<>();
+		for (ModeracaoService.Deteccao deteccao : motor.detectar("ME CHAMA NO ZAP, é uma AÇÃO rápida")) {
+			detectados.add(deteccao.palavra());
+		}
+		assertEquals(Set.of("me chama", "chama no zap", "zap", "ação"), detectados);
+	}
+
+	@Test
+	void termoSoComMarcasNaoDetectaNada() {
+		MotorModeracao motor = MotorModeracao.compilar(compilar(List.of(
+				new RegraModeracao("\u0301\u0302", false, "teste", NivelRiscoModeracao.BAIXO)
+		)));
+
+		assertTrue(motor.detectar("qualquer mensagem, com acentuação").isEmpty());
+	}
+
+	// O id de cada regra e o proprio termo, para identificar a regra na deteccao.
+	private static List<MotorModeracao.Regra> compilar(List<RegraModeracao> regras) {
+		List<MotorModeracao.Regra> compiladas = new ArrayList<>();
+		for (RegraModeracao regra : regras) {
+			Pattern padrao = regra.isExpressaoRegular() ? Pattern.compile(regra.getTermo()) : null;
+			compiladas.add(new MotorModeracao.Regra(regra.getTermo(), regra.getTermo(), regra.getTipo(),
+					regra.getNivelRisco(), padrao, new LongAdder()));
+		}
+		return compiladas;
+	}
+}
@@ -0,0 +1,101 @@
+package metalSpring;
+
+import com.metalSpring.MetalScApplication;
+import com.metalSpring.model.entity.Peca;
+import com.metalSpring.model.entity.Revendedor;
+import com.metalSpring.model.enums.PecaEstado;
+import com.metalSpring.repository.PecaRepository;
+import com.metalSpring.repository.ReservaEstoqueRepository;
+import com.metalSpring.repository.RevendedorRepository;
+import com.metalSpring.services.EstoqueService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(classes = MetalScApplication.class)
+class EstoqueConcorrenciaTests {
+
+	private static final int COMPRADORES = 30;
+	private static final int ESTOQUE = 3;
+
+	@Autowired
+	private EstoqueService estoqueService;
+
+	@Autowired
+	private PecaRepository pecaRepository;
+
+	@Autowired
+	private RevendedorRepository revendedorRepository;
+
+	@Autowired
+	private ReservaEstoqueRepository reservaRepository;
+
+	private final List<String> pedidos = new ArrayList<>();
+	private Revendedor revendedor;
+	private Peca peca;
+
+	@BeforeEach
+	void criarPeca() {
+		String sufixo = UUID.randomUUID().toString().substring(0, 8);
+		revendedor = revendedorRepository.save(new Revendedor("Loja Teste", "estoque-" + sufixo + "@teste.local",
+				"hash", null, null, "Loja Teste " + sufixo));
+		peca = pecaRepository.save(new Peca("Peca disputada", null, "Teste", 10.0,
+				PecaEstado.NOVO, 2020, "Marca", "Modelo", revendedor, ESTOQUE));
+	}
+
+	@AfterEach
+	void removerPeca() {
+		for (String pedidoId : pedidos) {
+			for (Object[] reserva : reservaRepository.findAtivasPorPedido(pedidoId)) {
+				reservaRepository.deleteById((String) reserva[0]);
+			}
+		}
+		pecaRepository.deleteById(peca.getId());
+		revendedorRepository.deleteById(revendedor.getId());
+	}
+
+	@Test
+	void checkoutsSimultaneosNaoVendemAlemDoEstoque() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(COMPRADORES);
+		CountDownLatch largada = new CountDownLatch(1);
+		List<Future<Boolean>> tentativas = new ArrayList<>();
+		for (int i = 0; i < COMPRADORES; i++) {
+			String pedidoId = "teste-" + peca.getId() + "-" + i;
+			pedidos.add(pedidoId);
+			tentativas.add(executor.submit(() -> {
+				largada.await();
+				try {
+					estoqueService.reservar(pedidoId, peca.getId(), 1);
+					return true;
+				} catch (RuntimeException e) {
+					return false;
+				}
+			}));
+		}
+		largada.countDown();
+
+		int reservadas = 0;
+		for (Future<Boolean> tentativa : tentativas) {
+			if (tentativa.get(30, TimeUnit.SECONDS)) {
+				reservadas++;
+			}
+		}
+		executor.shutdown();
+
+		assertEquals(ESTOQUE, reservadas);
+		assertEquals(0, pecaRepository.findById(peca.getId()).orElseThrow().getEstoque());
+	}
+}